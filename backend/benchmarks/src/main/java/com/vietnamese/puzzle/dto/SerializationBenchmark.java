@@ -0,0 +1,59 @@
+package com.vietnamese.puzzle.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.vietnamese.puzzle.service.PuzzleSolverService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    // same modules and date handling as the mapper Spring Boot configures for the API
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private List<SolutionDto> solutions;
+
+    @Setup
+    public void setup() {
+        OffsetDateTime createdAt = OffsetDateTime.now();
+        solutions = new ArrayList<>();
+        long id = 1;
+        for (PuzzleSolverService.SolutionCandidate candidate : new PuzzleSolverService().solve()) {
+            solutions.add(new SolutionDto(id++, candidate.positions(), candidate.equation(), candidate.result(),
+                    "correct", createdAt));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeAllSolutions() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(solutions);
+    }
+
+    @Benchmark
+    public String serializeOneSolution() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(solutions.getFirst());
+    }
+}
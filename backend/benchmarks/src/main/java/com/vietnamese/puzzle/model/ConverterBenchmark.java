@@ -0,0 +1,53 @@
+package com.vietnamese.puzzle.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    private final IntegerListConverter converter = new IntegerListConverter();
+    private final List<Integer> boxed = List.of(5, 4, 1, 9, 2, 8, 6, 7, 3);
+    private final List<Integer> packed = PackedDigitList.of(5, 4, 1, 9, 2, 8, 6, 7, 3);
+    private final Long column = PackedDigitList.pack(5, 4, 1, 9, 2, 8, 6, 7, 3);
+
+    @Benchmark
+    public Long toColumnFromBoxedList() {
+        return converter.convertToDatabaseColumn(boxed);
+    }
+
+    @Benchmark
+    public Long toColumnFromPackedList() {
+        return converter.convertToDatabaseColumn(packed);
+    }
+
+    @Benchmark
+    public List<Integer> toAttribute() {
+        return converter.convertToEntityAttribute(column);
+    }
+
+    @Benchmark
+    public int roundTripAndRead() {
+        List<Integer> digits = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(boxed));
+        int sum = 0;
+        for (int k = 0; k < digits.size(); k++) {
+            sum += digits.get(k);
+        }
+        return sum;
+    }
+}
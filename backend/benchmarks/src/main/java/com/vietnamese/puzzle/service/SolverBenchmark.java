@@ -0,0 +1,46 @@
+package com.vietnamese.puzzle.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"SEQUENTIAL", "PARALLEL", "BRANCH_AND_BOUND", "MINIMAL_CHANGE", "SYMMETRY_REDUCED"})
+    private SolverMode mode;
+
+    private PuzzleSolverService solverService;
+
+    @Setup
+    public void setup() {
+        solverService = new PuzzleSolverService();
+    }
+
+    // bypasses the per-mode memo so every invocation runs the full search
+    @Benchmark
+    public PuzzleSolverService.SolveOutcome search() {
+        return solverService.search(mode, null);
+    }
+
+    @Benchmark
+    public List<PuzzleSolverService.SolutionCandidate> solveMemoized() {
+        return solverService.solve(mode);
+    }
+}
@@ -0,0 +1,110 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private PuzzleSolverService solverService;
+    private List<Integer> solution;
+    private List<Integer> nonSolution;
+    private int[] nonSolutionDigits;
+    private byte[] batch;
+    private List<Integer> partial;
+
+    @Setup
+    public void setup() {
+        solverService = new PuzzleSolverService();
+        solution = solverService.solve().getFirst().positions();
+        nonSolution = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        nonSolutionDigits = new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9};
+        partial = Arrays.asList(null, null, null, null, 5, null, null, null, null);
+
+        SplittableRandom random = new SplittableRandom(42);
+        batch = new byte[BATCH_SIZE * 9];
+        for (int item = 0; item < BATCH_SIZE; item++) {
+            int[] digits = solverService.space().unrank(random.nextInt(362_880));
+            for (int k = 0; k < 9; k++) {
+                batch[item * 9 + k] = (byte) digits[k];
+            }
+        }
+    }
+
+    @Benchmark
+    public PuzzleSolverService.PuzzleValidation validateSolution() {
+        return solverService.validate(solution);
+    }
+
+    @Benchmark
+    public PuzzleSolverService.PuzzleValidation validateNonSolution() {
+        return solverService.validate(nonSolution);
+    }
+
+    @Benchmark
+    public void validateAndFormatEquation(Blackhole blackhole) {
+        blackhole.consume(solverService.validate(nonSolution).equation());
+    }
+
+    @Benchmark
+    public PuzzleSolverService.BatchValidation validateBatch() {
+        return solverService.validateBatch(batch);
+    }
+
+    // count plus a first page of completions, as served by POST /api/completions
+    @Benchmark
+    public void completePartialAssignment(Blackhole blackhole) {
+        SolutionSet solutions = solverService.solutionSet();
+        BitSet matches = solutions.matching(partial);
+        blackhole.consume(matches.cardinality());
+        for (int ordinal = matches.nextSetBit(0), taken = 0; ordinal >= 0 && taken < 10; ordinal = matches.nextSetBit(ordinal + 1), taken++) {
+            blackhole.consume(solutions.candidate(ordinal));
+        }
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return solverService.equation().evaluate(nonSolutionDigits);
+    }
+
+    @Benchmark
+    public boolean isSolution() {
+        return handDerivedIsSolution(nonSolutionDigits);
+    }
+
+    @Benchmark
+    public boolean compiledIsSolution() {
+        return solverService.equation().isSolution(nonSolutionDigits);
+    }
+
+    // hand-derived baseline for PuzzleDefinition.DEFAULT, multiplied through by c*i to stay in integers
+    private static boolean handDerivedIsSolution(int[] p) {
+        int c = p[2];
+        int i = p[8];
+        long linear = p[0] + p[3] + 12 * p[4] - p[5] - 11 - 10 - PuzzleDefinition.DEFAULT.target();
+        return linear * c * i + 13 * p[1] * i + p[6] * p[7] * c == 0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.vietnamese.puzzle.config;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class PuzzleDefinitionConfig {
+
+    @Bean
+    public PuzzleDefinition puzzleDefinition(@Value("${puzzle.definition.expression:}") String expression,
+                                             @Value("${puzzle.definition.digits:1,2,3,4,5,6,7,8,9}") List<Integer> digits,
+                                             @Value("${puzzle.definition.slots:9}") int slots,
+                                             @Value("${puzzle.definition.target:66}") long target) {
+        // a blank expression keeps the historical equation, not the rest of the historical definition
+        return new PuzzleDefinition(expression.isBlank() ? PuzzleDefinition.DEFAULT.expression() : expression,
+                digits, slots, target);
+    }
+}
@@ -0,0 +1,84 @@
+package com.vietnamese.puzzle.controller;
+
+import com.vietnamese.puzzle.service.GenerationJobService;
+import com.vietnamese.puzzle.service.GenerationProgress;
+import com.vietnamese.puzzle.service.SolutionService;
+import com.vietnamese.puzzle.service.SolverMode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:4200"})
+public class GenerationJobController {
+
+    private final GenerationJobService jobService;
+
+    public GenerationJobController(GenerationJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submitJob(@RequestParam(value = "mode", defaultValue = "parallel") String mode) {
+        GenerationJobService.GenerationJob job = jobService.submit(SolverMode.fromParameter(mode));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(toResponse(job));
+    }
+
+    @GetMapping("/{id}")
+    public Map<String, Object> getJob(@PathVariable String id) {
+        return toResponse(jobService.getJob(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String id) {
+        return ResponseEntity.accepted().body(toResponse(jobService.cancel(id)));
+    }
+
+    // also the body of POST /api/solutions/distributed, which submits a job of its own
+    static Map<String, Object> toResponse(GenerationJobService.GenerationJob job) {
+        GenerationProgress progress = job.getProgress();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", job.getId());
+        if (job.isDistributed()) {
+            response.put("mode", "distributed");
+            response.put("workers", job.getWorkers());
+        } else {
+            response.put("mode", job.getMode().name().toLowerCase(Locale.ROOT).replace('_', '-'));
+        }
+        response.put("status", job.getStatus().name().toLowerCase(Locale.ROOT));
+        response.put("cancelRequested", progress.isCancelled());
+        response.put("permutationsExplored", progress.permutationsExplored());
+        response.put("solutionsFound", progress.solutionsFound());
+        response.put("rowsPersisted", progress.rowsPersisted());
+        response.put("submittedAt", job.getSubmittedAt());
+        response.put("startedAt", job.getStartedAt());
+        response.put("finishedAt", job.getFinishedAt());
+
+        SolutionService.GenerationResult result = job.getResult();
+        if (result != null) {
+            response.put("count", result.getCount());
+            response.put("inserted", result.getInserted());
+            response.put("alreadyPresent", result.getAlreadyPresent());
+            response.put("computationTime", result.getComputationTimeMs());
+        }
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+        return response;
+    }
+}
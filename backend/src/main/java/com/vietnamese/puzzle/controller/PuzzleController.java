@@ -0,0 +1,70 @@
+package com.vietnamese.puzzle.controller;
+
+import com.vietnamese.puzzle.dto.PuzzleDefinitionRequest;
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import com.vietnamese.puzzle.service.SolutionService;
+import com.vietnamese.puzzle.service.SolutionSet;
+import com.vietnamese.puzzle.service.SolutionSetCache;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/puzzles")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:4200"})
+public class PuzzleController {
+
+    private final SolutionSetCache solutionSets;
+
+    public PuzzleController(SolutionSetCache solutionSets) {
+        this.solutionSets = solutionSets;
+    }
+
+    @PostMapping("/solutions")
+    public Map<String, Object> solve(@Valid @RequestBody PuzzleDefinitionRequest request,
+                                     @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                     @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (offset < 0 || limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètres de pagination invalides");
+        }
+
+        long start = System.currentTimeMillis();
+        SolutionSet solutions;
+        try {
+            PuzzleDefinition definition = request.toDefinition();
+            solutions = solutionSets.get(definition);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+        long computationTime = System.currentTimeMillis() - start;
+
+        int end = (int) Math.min(solutions.size(), (long) offset + Math.min(limit, SolutionService.MAX_PAGE_SIZE));
+        List<Map<String, Object>> page = new ArrayList<>();
+        for (int ordinal = offset; ordinal < end; ordinal++) {
+            int[] digits = solutions.digits(ordinal);
+            Map<String, Object> item = new HashMap<>();
+            item.put("solution", digits);
+            item.put("equation", solutions.equation().format(digits));
+            page.add(item);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("fingerprint", solutions.definition().fingerprint());
+        response.put("count", solutions.size());
+        response.put("offset", offset);
+        response.put("solutions", page);
+        response.put("computationTime", computationTime);
+        return response;
+    }
+}
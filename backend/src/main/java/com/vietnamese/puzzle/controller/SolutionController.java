@@ -1,12 +1,24 @@
 package com.vietnamese.puzzle.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietnamese.puzzle.dto.CompletionRequest;
+import com.vietnamese.puzzle.dto.SolutionCursor;
 import com.vietnamese.puzzle.dto.SolutionDto;
+import com.vietnamese.puzzle.dto.SolutionQuery;
 import com.vietnamese.puzzle.dto.UpdateSolutionRequest;
 import com.vietnamese.puzzle.dto.ValidationRequest;
 import com.vietnamese.puzzle.model.PuzzleSolution;
+import com.vietnamese.puzzle.model.SolutionStatus;
+import com.vietnamese.puzzle.service.GenerationJobService;
+import com.vietnamese.puzzle.service.PermutationSpace;
 import com.vietnamese.puzzle.service.PuzzleSolverService;
 import com.vietnamese.puzzle.service.SolutionService;
+import com.vietnamese.puzzle.service.SolverMode;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,7 +29,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,15 +47,50 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:4200"})
 public class SolutionController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int STREAM_CHUNK_SIZE = 32;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_WORKERS = 64;
+    private static final byte INVALID_DIGIT = -1;
+
     private final SolutionService solutionService;
+    private final GenerationJobService jobService;
+    private final ObjectMapper objectMapper;
 
-    public SolutionController(SolutionService solutionService) {
+    public SolutionController(SolutionService solutionService, GenerationJobService jobService, ObjectMapper objectMapper) {
         this.solutionService = solutionService;
+        this.jobService = jobService;
+        this.objectMapper = objectMapper.copy().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
     }
 
     @GetMapping("/solutions")
-    public Map<String, Object> listSolutions(@RequestParam(value = "filter", required = false) String filter) {
-        List<SolutionDto> solutions = solutionService.getSolutions(filter).stream()
+    public Map<String, Object> listSolutions(@RequestParam(value = "filter", required = false) String filter,
+                                             @RequestParam Map<String, String> parameters,
+                                             WebRequest webRequest) {
+        if (webRequest.checkNotModified(currentETag())) {
+            return null;
+        }
+
+        SolutionQuery query = SolutionQuery.fromParameters(parameters, solutionService.space().slots());
+
+        if (parameters.containsKey("limit") || parameters.containsKey("cursor")) {
+            String cursor = parameters.get("cursor");
+            SolutionService.SolutionPage page = solutionService.getSolutionPage(
+                    query,
+                    cursor == null || cursor.isBlank() ? null : SolutionCursor.decode(cursor),
+                    parsePageSize(parameters.get("limit")));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("solutions", page.getSolutions().stream().map(SolutionDto::fromEntity).toList());
+            response.put("nextCursor", page.getNextCursor() == null ? null : page.getNextCursor().encode());
+            return response;
+        }
+
+        List<PuzzleSolution> found = query.isStructured()
+                ? solutionService.searchSolutions(query)
+                : solutionService.getSolutions(filter);
+
+        List<SolutionDto> solutions = found.stream()
                 .map(SolutionDto::fromEntity)
                 .toList();
 
@@ -44,31 +99,134 @@ public class SolutionController {
         return response;
     }
 
+    // the data version changes on every write, so it is a valid validator for any read representation
+    private String currentETag() {
+        return "\"" + Long.toHexString(solutionService.getDataVersion()) + "\"";
+    }
+
+    private static int parsePageSize(String limit) {
+        if (limit == null || limit.isBlank()) {
+            return SolutionService.DEFAULT_PAGE_SIZE;
+        }
+        try {
+            int pageSize = Integer.parseInt(limit.trim());
+            if (pageSize < 1) {
+                throw new NumberFormatException(limit);
+            }
+            return Math.min(pageSize, SolutionService.MAX_PAGE_SIZE);
+        } catch (NumberFormatException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètre limit invalide");
+        }
+    }
+
     @PostMapping("/solutions")
-    public Map<String, Object> generateSolutions() {
-        SolutionService.GenerationResult result = solutionService.generateAndSaveAll();
+    public Map<String, Object> generateSolutions(@RequestParam(value = "mode", defaultValue = "parallel") String mode,
+                                                 @RequestParam(value = "limit", required = false) Integer limit,
+                                                 @RequestParam(value = "sample", required = false) Integer sample,
+                                                 @RequestParam(value = "countOnly", defaultValue = "false") boolean countOnly) {
+        if ((limit != null && limit < 1) || (sample != null && sample < 1) || (limit != null && sample != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètres limit/sample invalides");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+
+        if (countOnly) {
+            long start = System.nanoTime();
+            response.put("count", solutionService.countSolutions());
+            response.put("computationTime", (System.nanoTime() - start) / 1_000_000);
+            return response;
+        }
+
+        SolutionService.GenerationResult result;
+        if (limit != null) {
+            result = solutionService.generateAndSaveFirst(limit);
+        } else if (sample != null) {
+            result = solutionService.generateAndSaveSample(sample);
+        } else {
+            result = solutionService.generateAndSaveAll(SolverMode.fromParameter(mode));
+        }
 
         List<SolutionDto> solutions = result.getSolutions().stream()
                 .map(SolutionDto::fromEntity)
                 .toList();
 
-        Map<String, Object> response = new HashMap<>();
         response.put("solutions", solutions);
         response.put("count", solutions.size());
+        response.put("inserted", result.getInserted());
+        response.put("alreadyPresent", result.getAlreadyPresent());
         response.put("computationTime", result.getComputationTimeMs());
+        response.put("solveTime", result.getSolveTimeMs());
+        response.put("persistenceTime", result.getPersistenceTimeMs());
         return response;
     }
 
+    // runs as a generation job: followed and cancelled through /api/jobs/{id}, summary only once done
+    @PostMapping("/solutions/distributed")
+    public ResponseEntity<Map<String, Object>> generateDistributed(@RequestParam(value = "workers", required = false) Integer workers) {
+        int processes = workers == null ? Runtime.getRuntime().availableProcessors() : workers;
+        if (processes < 1 || processes > MAX_WORKERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètre workers invalide (1 à " + MAX_WORKERS + ")");
+        }
+
+        GenerationJobService.GenerationJob job = jobService.submitDistributed(processes);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(GenerationJobController.toResponse(job));
+    }
+
+    @PostMapping(value = "/solutions/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamSolutions() {
+        StreamingResponseBody body = output -> {
+            SolutionService.GenerationResult result = solutionService.generateAndSaveInChunks(STREAM_CHUNK_SIZE, saved -> {
+                try {
+                    for (PuzzleSolution solution : saved) {
+                        objectMapper.writeValue(output, SolutionDto.fromEntity(solution));
+                        output.write('\n');
+                    }
+                    output.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("count", result.getCount());
+            summary.put("inserted", result.getInserted());
+            summary.put("alreadyPresent", result.getAlreadyPresent());
+            summary.put("computationTime", result.getComputationTimeMs());
+            summary.put("solveTime", result.getSolveTimeMs());
+            summary.put("persistenceTime", result.getPersistenceTimeMs());
+            objectMapper.writeValue(output, summary);
+            output.write('\n');
+            output.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
     @DeleteMapping("/solutions")
-    public Map<String, String> deleteAll() {
-        solutionService.deleteAll();
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Toutes les solutions ont été supprimées");
+    public Map<String, Object> deleteAll(@RequestParam(value = "status", required = false) String status,
+                                         @RequestParam(value = "filter", required = false) String filter) {
+        Map<String, Object> response = new HashMap<>();
+        if (status == null && (filter == null || filter.isBlank())) {
+            response.put("deleted", solutionService.deleteAll());
+            response.put("message", "Toutes les solutions ont été supprimées");
+        } else {
+            SolutionStatus parsedStatus = status == null ? null : SolutionStatus.fromParameter(status);
+            response.put("deleted", solutionService.deleteMatching(parsedStatus, filter));
+            response.put("message", "Les solutions correspondantes ont été supprimées");
+        }
         return response;
     }
 
     @GetMapping("/solutions/{id}")
-    public Map<String, Object> getSolution(@PathVariable Long id) {
+    public Map<String, Object> getSolution(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(currentETag())) {
+            return null;
+        }
+
         PuzzleSolution solution = solutionService.getSolution(id);
         Map<String, Object> response = new HashMap<>();
         response.put("solution", SolutionDto.fromEntity(solution));
@@ -77,6 +235,7 @@ public class SolutionController {
 
     @PutMapping("/solutions/{id}")
     public Map<String, Object> updateSolution(@PathVariable Long id, @Valid @RequestBody UpdateSolutionRequest request) {
+        checkDigits(request.solution(), solutionService.space());
         PuzzleSolverService.PuzzleValidation validation = solutionService.validate(request.solution());
         PuzzleSolution updated = solutionService.updateSolution(id, request.solution());
 
@@ -90,6 +249,26 @@ public class SolutionController {
         return response;
     }
 
+    private static void checkDigits(List<Integer> solution, PermutationSpace space) {
+        boolean inRange = solution.stream().allMatch(digit -> isDigit(digit, space.digitMask()));
+        if (solution.size() != space.slots() || !inRange) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La solution doit contenir " + space.slots() + " chiffres parmi " + digits(space.digitMask()));
+        }
+    }
+
+    private static boolean isDigit(Integer value, int digitMask) {
+        return value != null && value >= 0 && value < Integer.SIZE && (digitMask & (1 << value)) != 0;
+    }
+
+    private static List<Integer> digits(int digitMask) {
+        List<Integer> digits = new ArrayList<>();
+        for (int remaining = digitMask; remaining != 0; remaining &= remaining - 1) {
+            digits.add(Integer.numberOfTrailingZeros(remaining));
+        }
+        return digits;
+    }
+
     @DeleteMapping("/solutions/{id}")
     public Map<String, String> deleteSolution(@PathVariable Long id) {
         solutionService.deleteById(id);
@@ -109,4 +288,91 @@ public class SolutionController {
         response.put("result", validation.result());
         return response;
     }
+
+    @PostMapping("/completions")
+    public Map<String, Object> completePuzzle(@Valid @RequestBody CompletionRequest request,
+                                              @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                              @RequestParam(value = "limit", required = false) String limit) {
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètre offset invalide");
+        }
+        SolutionService.CompletionPage page = solutionService.complete(request.positions(), offset, parsePageSize(limit));
+
+        List<Map<String, Object>> completions = new ArrayList<>();
+        for (PuzzleSolverService.SolutionCandidate candidate : page.getCompletions()) {
+            Map<String, Object> completion = new HashMap<>();
+            completion.put("solution", candidate.positions());
+            completion.put("equation", candidate.equation());
+            completions.add(completion);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", page.getCount());
+        response.put("offset", offset);
+        response.put("completions", completions);
+        return response;
+    }
+
+    @PostMapping(value = "/validate/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, Object> validateBatch(@RequestBody List<List<Integer>> items,
+                                             @RequestParam(value = "includeEquation", defaultValue = "false") boolean includeEquation) {
+        checkBatchSize(items.size());
+
+        // -1 is never a digit, so a malformed item fails the arrangement check whatever the digit set
+        PermutationSpace space = solutionService.space();
+        int slots = space.slots();
+        byte[] digits = new byte[items.size() * slots];
+        Arrays.fill(digits, INVALID_DIGIT);
+        for (int item = 0; item < items.size(); item++) {
+            List<Integer> positions = items.get(item);
+            if (positions == null || positions.size() != slots) {
+                continue;
+            }
+            for (int k = 0; k < slots; k++) {
+                Integer value = positions.get(k);
+                if (isDigit(value, space.digitMask())) {
+                    digits[item * slots + k] = value.byteValue();
+                }
+            }
+        }
+        return toBatchResponse(solutionService.validateBatch(digits), includeEquation);
+    }
+
+    @PostMapping(value = "/validate/batch", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Map<String, Object> validateBatchBinary(@RequestBody byte[] digits,
+                                                   @RequestParam(value = "includeEquation", defaultValue = "false") boolean includeEquation) {
+        int slots = solutionService.space().slots();
+        if (digits.length % slots != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Le corps binaire doit contenir " + slots + " octets par combinaison");
+        }
+        checkBatchSize(digits.length / slots);
+        return toBatchResponse(solutionService.validateBatch(digits), includeEquation);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Un lot ne peut pas dépasser " + MAX_BATCH_SIZE + " combinaisons");
+        }
+    }
+
+    private Map<String, Object> toBatchResponse(PuzzleSolverService.BatchValidation batch, boolean includeEquation) {
+        List<Map<String, Object>> results = new ArrayList<>(batch.size());
+        for (int item = 0; item < batch.size(); item++) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("isValid", batch.isValid(item));
+            result.put("result", batch.result(item));
+            if (includeEquation) {
+                result.put("equation", batch.equation(item));
+            }
+            results.add(result);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("results", results);
+        response.put("count", batch.size());
+        response.put("validCount", batch.validCount());
+        return response;
+    }
 }
@@ -0,0 +1,8 @@
+package com.vietnamese.puzzle.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+// null entries mark the slots still to be filled
+public record CompletionRequest(@NotNull List<Integer> positions) {
+}
@@ -0,0 +1,17 @@
+package com.vietnamese.puzzle.dto;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public record PuzzleDefinitionRequest(@NotBlank String expression,
+                                      @NotEmpty List<@NotNull Integer> digits,
+                                      @NotNull Integer slots,
+                                      @NotNull Long target) {
+
+    public PuzzleDefinition toDefinition() {
+        return new PuzzleDefinition(expression, digits, slots, target);
+    }
+}
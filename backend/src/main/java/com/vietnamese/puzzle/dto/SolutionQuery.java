@@ -0,0 +1,90 @@
+package com.vietnamese.puzzle.dto;
+
+import com.vietnamese.puzzle.model.SolutionStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public record SolutionQuery(
+        List<DigitRange> positions,
+        SolutionStatus status,
+        Double resultMin,
+        Double resultMax,
+        String filter
+) {
+
+    private static final Pattern POSITION_PARAMETER = Pattern.compile("pos\\[?(\\d+)]?");
+    private static final Pattern DIGIT_RANGE = Pattern.compile("\\s*(\\d+)\\s*(?:-\\s*(\\d+)\\s*)?");
+
+    public record DigitRange(int position, int min, int max) {
+    }
+
+    // slots is the number of positions of the configured definition; pos[k] beyond it is rejected
+    public static SolutionQuery fromParameters(Map<String, String> parameters, int slots) {
+        List<DigitRange> positions = new ArrayList<>();
+        SolutionStatus status = null;
+        Double resultMin = null;
+        Double resultMax = null;
+        String filter = null;
+
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            String name = parameter.getKey();
+            String value = parameter.getValue();
+            Matcher position = POSITION_PARAMETER.matcher(name);
+
+            if (position.matches()) {
+                positions.add(parseRange(position.group(1), value, slots));
+            } else if (name.equals("status")) {
+                status = SolutionStatus.fromParameter(value);
+            } else if (name.equals("resultMin")) {
+                resultMin = parseNumber(name, value);
+            } else if (name.equals("resultMax")) {
+                resultMax = parseNumber(name, value);
+            } else if (name.equals("filter") && !value.isBlank()) {
+                filter = value;
+            }
+        }
+
+        return new SolutionQuery(List.copyOf(positions), status, resultMin, resultMax, filter);
+    }
+
+    public boolean isStructured() {
+        return !positions.isEmpty() || status != null || resultMin != null || resultMax != null;
+    }
+
+    // digit runs too long for an int are as invalid as any other malformed filter
+    private static DigitRange parseRange(String position, String value, int slots) {
+        Matcher range = DIGIT_RANGE.matcher(value);
+        if (!range.matches()) {
+            throw invalidRange(position, value);
+        }
+        try {
+            int index = Integer.parseInt(position);
+            int min = Integer.parseInt(range.group(1));
+            int max = range.group(2) == null ? min : Integer.parseInt(range.group(2));
+            if (index >= slots || min > max) {
+                throw invalidRange(position, value);
+            }
+            return new DigitRange(index, min, max);
+        } catch (NumberFormatException ex) {
+            throw invalidRange(position, value);
+        }
+    }
+
+    private static ResponseStatusException invalidRange(String position, String value) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filtre de position invalide : pos[" + position + "]=" + value);
+    }
+
+    private static Double parseNumber(String name, String value) {
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Valeur numérique invalide pour " + name + " : " + value);
+        }
+    }
+}
@@ -3,5 +3,6 @@ package com.vietnamese.puzzle.dto;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
 
-public record UpdateSolutionRequest(@NotNull List<Integer> solution) {
+// length and digit range depend on the configured definition and are checked by the controller
+public record UpdateSolutionRequest(@NotNull List<@NotNull Integer> solution) {
 }
@@ -0,0 +1,92 @@
+package com.vietnamese.puzzle.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.util.List;
+
+// one indexed column per slot, as many as a definition can have; unused slots stay null
+@Embeddable
+public class DigitColumns {
+
+    public static final int POSITIONS = PackedDigitList.MAX_SIZE;
+
+    @Column(name = "pos_0")
+    private Integer pos0;
+
+    @Column(name = "pos_1")
+    private Integer pos1;
+
+    @Column(name = "pos_2")
+    private Integer pos2;
+
+    @Column(name = "pos_3")
+    private Integer pos3;
+
+    @Column(name = "pos_4")
+    private Integer pos4;
+
+    @Column(name = "pos_5")
+    private Integer pos5;
+
+    @Column(name = "pos_6")
+    private Integer pos6;
+
+    @Column(name = "pos_7")
+    private Integer pos7;
+
+    @Column(name = "pos_8")
+    private Integer pos8;
+
+    @Column(name = "pos_9")
+    private Integer pos9;
+
+    @Column(name = "pos_10")
+    private Integer pos10;
+
+    @Column(name = "pos_11")
+    private Integer pos11;
+
+    @Column(name = "pos_12")
+    private Integer pos12;
+
+    @Column(name = "pos_13")
+    private Integer pos13;
+
+    @Column(name = "pos_14")
+    private Integer pos14;
+
+    public DigitColumns() {
+    }
+
+    public static DigitColumns of(List<Integer> solution) {
+        DigitColumns columns = new DigitColumns();
+        if (solution == null) {
+            return columns;
+        }
+        columns.pos0 = digitAt(solution, 0);
+        columns.pos1 = digitAt(solution, 1);
+        columns.pos2 = digitAt(solution, 2);
+        columns.pos3 = digitAt(solution, 3);
+        columns.pos4 = digitAt(solution, 4);
+        columns.pos5 = digitAt(solution, 5);
+        columns.pos6 = digitAt(solution, 6);
+        columns.pos7 = digitAt(solution, 7);
+        columns.pos8 = digitAt(solution, 8);
+        columns.pos9 = digitAt(solution, 9);
+        columns.pos10 = digitAt(solution, 10);
+        columns.pos11 = digitAt(solution, 11);
+        columns.pos12 = digitAt(solution, 12);
+        columns.pos13 = digitAt(solution, 13);
+        columns.pos14 = digitAt(solution, 14);
+        return columns;
+    }
+
+    public static String attributeName(int position) {
+        return "pos" + position;
+    }
+
+    private static Integer digitAt(List<Integer> solution, int position) {
+        return position < solution.size() ? solution.get(position) : null;
+    }
+}
@@ -2,33 +2,24 @@ package com.vietnamese.puzzle.model;
 
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Converter
-public class IntegerListConverter implements AttributeConverter<List<Integer>, String> {
+public class IntegerListConverter implements AttributeConverter<List<Integer>, Long> {
 
     @Override
-    public String convertToDatabaseColumn(List<Integer> attribute) {
-        if (attribute == null || attribute.isEmpty()) {
-            return "";
+    public Long convertToDatabaseColumn(List<Integer> attribute) {
+        if (attribute == null) {
+            return PackedDigitList.pack(List.of());
         }
-        return attribute.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
+        return PackedDigitList.pack(attribute);
     }
 
     @Override
-    public List<Integer> convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.isBlank()) {
-            return Collections.emptyList();
+    public List<Integer> convertToEntityAttribute(Long dbData) {
+        if (dbData == null) {
+            return List.of();
         }
-        return Arrays.stream(dbData.split(","))
-                .map(String::trim)
-                .filter(token -> !token.isEmpty())
-                .map(Integer::valueOf)
-                .collect(Collectors.toList());
+        return PackedDigitList.fromPacked(dbData);
     }
 }
@@ -0,0 +1,86 @@
+package com.vietnamese.puzzle.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+public final class PackedDigitList extends AbstractList<Integer> implements RandomAccess {
+
+    public static final int MAX_SIZE = 15;
+    public static final int MAX_DIGIT = 15;
+
+    // low nibble holds the size, then one nibble per digit starting at position 0
+    private final long packed;
+
+    private PackedDigitList(long packed) {
+        this.packed = packed;
+    }
+
+    public static PackedDigitList fromPacked(long packed) {
+        if ((packed & 0xF) > MAX_SIZE) {
+            throw new IllegalArgumentException("Chiffres compactés invalides : " + packed);
+        }
+        return new PackedDigitList(packed);
+    }
+
+    public static PackedDigitList of(int... digits) {
+        return new PackedDigitList(pack(digits));
+    }
+
+    public static long pack(int... digits) {
+        if (digits.length > MAX_SIZE) {
+            throw new IllegalArgumentException("Au plus " + MAX_SIZE + " chiffres peuvent être compactés");
+        }
+        long packed = digits.length;
+        for (int k = 0; k < digits.length; k++) {
+            packed |= (long) checkDigit(digits[k]) << (4 * (k + 1));
+        }
+        return packed;
+    }
+
+    public static long pack(List<Integer> digits) {
+        if (digits instanceof PackedDigitList packedList) {
+            return packedList.packed;
+        }
+        if (digits.size() > MAX_SIZE) {
+            throw new IllegalArgumentException("Au plus " + MAX_SIZE + " chiffres peuvent être compactés");
+        }
+        long packed = digits.size();
+        for (int k = 0; k < digits.size(); k++) {
+            Integer digit = digits.get(k);
+            if (digit == null) {
+                throw new IllegalArgumentException("Les chiffres ne peuvent pas être null");
+            }
+            packed |= (long) checkDigit(digit) << (4 * (k + 1));
+        }
+        return packed;
+    }
+
+    private static int checkDigit(int digit) {
+        if (digit < 0 || digit > MAX_DIGIT) {
+            throw new IllegalArgumentException("Chiffre hors limites : " + digit);
+        }
+        return digit;
+    }
+
+    public long packed() {
+        return packed;
+    }
+
+    public int digit(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (int) (packed >>> (4 * (index + 1))) & 0xF;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return digit(index);
+    }
+
+    @Override
+    public int size() {
+        return (int) (packed & 0xF);
+    }
+}
@@ -0,0 +1,54 @@
+package com.vietnamese.puzzle.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+// slots are named a, b, c… in the expression; each takes a distinct value from digits
+public record PuzzleDefinition(String expression, List<Integer> digits, int slots, long target) {
+
+    public static final PuzzleDefinition DEFAULT = new PuzzleDefinition(
+            "a + 13*b/c + d + 12*e - f - 11 + g*h/i - 10", List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), 9, 66);
+
+    public PuzzleDefinition {
+        Objects.requireNonNull(expression, "expression");
+        Objects.requireNonNull(digits, "digits");
+        digits = digits.stream().sorted().toList();
+
+        for (int k = 0; k < digits.size(); k++) {
+            int digit = digits.get(k);
+            if (digit < 0 || digit > PackedDigitList.MAX_DIGIT) {
+                throw new IllegalArgumentException("Les chiffres doivent être compris entre 0 et " + PackedDigitList.MAX_DIGIT + " : " + digit);
+            }
+            if (k > 0 && digit == digits.get(k - 1)) {
+                throw new IllegalArgumentException("Chiffre en double : " + digit);
+            }
+        }
+        if (slots < 1 || slots > PackedDigitList.MAX_SIZE || slots > digits.size()) {
+            throw new IllegalArgumentException("Le nombre de cases doit être compris entre 1 et min(" + PackedDigitList.MAX_SIZE + ", nombre de chiffres) : " + slots);
+        }
+    }
+
+    // SHA-256 of the definition with whitespace stripped from the expression, so
+    // "a*b - c" and "a * b-c" over the same digits, slots and target share one key
+    public String fingerprint() {
+        String canonical = expression.replaceAll("\\s+", "") + '|' + digits + '|' + slots + '|' + target;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public int digitMask() {
+        int mask = 0;
+        for (int digit : digits) {
+            mask |= 1 << digit;
+        }
+        return mask;
+    }
+}
@@ -2,30 +2,59 @@ package com.vietnamese.puzzle.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.OffsetDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "puzzle_solutions")
+@Table(name = "puzzle_solutions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_puzzle_solutions_solution", columnNames = "solution_data"),
+        indexes = {
+                @Index(name = "idx_puzzle_solutions_pos_0", columnList = "pos_0"),
+                @Index(name = "idx_puzzle_solutions_pos_1", columnList = "pos_1"),
+                @Index(name = "idx_puzzle_solutions_pos_2", columnList = "pos_2"),
+                @Index(name = "idx_puzzle_solutions_pos_3", columnList = "pos_3"),
+                @Index(name = "idx_puzzle_solutions_pos_4", columnList = "pos_4"),
+                @Index(name = "idx_puzzle_solutions_pos_5", columnList = "pos_5"),
+                @Index(name = "idx_puzzle_solutions_pos_6", columnList = "pos_6"),
+                @Index(name = "idx_puzzle_solutions_pos_7", columnList = "pos_7"),
+                @Index(name = "idx_puzzle_solutions_pos_8", columnList = "pos_8"),
+                @Index(name = "idx_puzzle_solutions_pos_9", columnList = "pos_9"),
+                @Index(name = "idx_puzzle_solutions_pos_10", columnList = "pos_10"),
+                @Index(name = "idx_puzzle_solutions_pos_11", columnList = "pos_11"),
+                @Index(name = "idx_puzzle_solutions_pos_12", columnList = "pos_12"),
+                @Index(name = "idx_puzzle_solutions_pos_13", columnList = "pos_13"),
+                @Index(name = "idx_puzzle_solutions_pos_14", columnList = "pos_14"),
+                @Index(name = "idx_puzzle_solutions_status", columnList = "status"),
+                @Index(name = "idx_puzzle_solutions_result", columnList = "result"),
+                @Index(name = "idx_puzzle_solutions_created_id", columnList = "created_at, id")
+        })
 public class PuzzleSolution {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "puzzle_solutions_seq")
+    @SequenceGenerator(name = "puzzle_solutions_seq", sequenceName = "puzzle_solutions_seq", allocationSize = 50)
     private Long id;
 
     @Convert(converter = IntegerListConverter.class)
-    @Column(name = "solution_data", nullable = false, length = 64)
+    @Column(name = "solution_data", nullable = false)
     private List<Integer> solution;
 
+    @Embedded
+    private DigitColumns digits = new DigitColumns();
+
     @Column(nullable = false, length = 255)
     private String equation;
 
@@ -45,6 +74,7 @@ public class PuzzleSolution {
 
     public PuzzleSolution(List<Integer> solution, String equation, double result, SolutionStatus status) {
         this.solution = solution;
+        this.digits = DigitColumns.of(solution);
         this.equation = equation;
         this.result = result;
         this.status = status;
@@ -60,6 +90,18 @@ public class PuzzleSolution {
 
     public void setSolution(List<Integer> solution) {
         this.solution = solution;
+        this.digits = DigitColumns.of(solution);
+    }
+
+    public long getPackedSolution() {
+        return PackedDigitList.pack(solution);
+    }
+
+    public int getDigit(int index) {
+        if (solution instanceof PackedDigitList packed) {
+            return packed.digit(index);
+        }
+        return solution.get(index);
     }
 
     public String getEquation() {
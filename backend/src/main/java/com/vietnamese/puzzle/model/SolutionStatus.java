@@ -1,6 +1,19 @@
 package com.vietnamese.puzzle.model;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
 public enum SolutionStatus {
     CORRECT,
-    INCORRECT
+    INCORRECT;
+
+    public static SolutionStatus fromParameter(String value) {
+        try {
+            return SolutionStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Statut inconnu : " + value);
+        }
+    }
 }
@@ -1,11 +1,32 @@
 package com.vietnamese.puzzle.repository;
 
 import com.vietnamese.puzzle.model.PuzzleSolution;
+import com.vietnamese.puzzle.model.SolutionStatus;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface PuzzleSolutionRepository extends JpaRepository<PuzzleSolution, Long> {
+public interface PuzzleSolutionRepository extends JpaRepository<PuzzleSolution, Long>,
+        JpaSpecificationExecutor<PuzzleSolution> {
     List<PuzzleSolution> findByEquationContainingIgnoreCase(String equation, Sort sort);
+
+    @Query(value = "select * from puzzle_solutions where solution_data in (:packed)", nativeQuery = true)
+    List<PuzzleSolution> findAllByPackedSolutionIn(@Param("packed") Collection<Long> packed);
+
+    @Modifying
+    @Query("delete from PuzzleSolution s where s.id = :id")
+    int deleteSingleById(@Param("id") Long id);
+
+    // filter must already be escaped with EscapeCharacter.DEFAULT, as the derived Containing query does
+    @Modifying
+    @Query("delete from PuzzleSolution s"
+            + " where (:status is null or s.status = :status)"
+            + " and (:filter is null or lower(s.equation) like lower(concat('%', :filter, '%')) escape '\\')")
+    int deleteMatching(@Param("status") SolutionStatus status, @Param("filter") String filter);
 }
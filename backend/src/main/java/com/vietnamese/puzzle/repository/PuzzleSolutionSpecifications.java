@@ -0,0 +1,58 @@
+package com.vietnamese.puzzle.repository;
+
+import com.vietnamese.puzzle.dto.SolutionCursor;
+import com.vietnamese.puzzle.dto.SolutionQuery;
+import com.vietnamese.puzzle.model.DigitColumns;
+import com.vietnamese.puzzle.model.PuzzleSolution;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class PuzzleSolutionSpecifications {
+
+    private PuzzleSolutionSpecifications() {
+    }
+
+    public static Specification<PuzzleSolution> matching(SolutionQuery query) {
+        return (root, criteriaQuery, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            for (SolutionQuery.DigitRange range : query.positions()) {
+                var digit = root.get("digits").<Integer>get(DigitColumns.attributeName(range.position()));
+                predicates.add(range.min() == range.max()
+                        ? builder.equal(digit, range.min())
+                        : builder.between(digit, range.min(), range.max()));
+            }
+            if (query.status() != null) {
+                predicates.add(builder.equal(root.get("status"), query.status()));
+            }
+            if (query.resultMin() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("result"), query.resultMin()));
+            }
+            if (query.resultMax() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("result"), query.resultMax()));
+            }
+            if (query.filter() != null) {
+                // escaped like the derived Containing query, so % and _ match literally here too
+                String filter = EscapeCharacter.DEFAULT.escape(query.filter().toLowerCase(Locale.ROOT));
+                predicates.add(builder.like(builder.lower(root.get("equation")), "%" + filter + "%",
+                        EscapeCharacter.DEFAULT.getEscapeCharacter()));
+            }
+
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // keyset predicate for the (created_at DESC, id DESC) ordering
+    public static Specification<PuzzleSolution> after(SolutionCursor cursor) {
+        return (root, criteriaQuery, builder) -> builder.or(
+                builder.lessThan(root.get("createdAt"), cursor.createdAt()),
+                builder.and(
+                        builder.equal(root.get("createdAt"), cursor.createdAt()),
+                        builder.lessThan(root.get("id"), cursor.id())));
+    }
+}
@@ -0,0 +1,45 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+
+import java.util.List;
+
+// Subclasses are generated by EquationCompiler, one hidden class per definition.
+public abstract class CompiledEquation {
+
+    private final PuzzleDefinition definition;
+    private final EquationCompiler.Template template;
+
+    protected CompiledEquation(PuzzleDefinition definition) {
+        this.definition = definition;
+        this.template = EquationCompiler.template(definition);
+    }
+
+    public PuzzleDefinition definition() {
+        return definition;
+    }
+
+    // exact: the expression is evaluated as a fraction of longs and compared to the target
+    public abstract boolean isSolution(int[] digits);
+
+    // floating point, in the expression's own evaluation order
+    public abstract double evaluate(int[] digits);
+
+    public String format(int[] digits) {
+        StringBuilder equation = new StringBuilder(template.fragments()[0]);
+        for (int occurrence = 0; occurrence < template.slotAt().length; occurrence++) {
+            equation.append(digits[template.slotAt()[occurrence]]).append(template.fragments()[occurrence + 1]);
+        }
+        return equation.toString();
+    }
+
+    public String format(List<Integer> positions) {
+        boolean complete = positions != null && positions.size() == definition.slots();
+        StringBuilder equation = new StringBuilder(template.fragments()[0]);
+        for (int occurrence = 0; occurrence < template.slotAt().length; occurrence++) {
+            Integer value = complete ? positions.get(template.slotAt()[occurrence]) : null;
+            equation.append(value == null ? "?" : value).append(template.fragments()[occurrence + 1]);
+        }
+        return equation.toString();
+    }
+}
@@ -0,0 +1,455 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Splits the permutation space of a definition into contiguous Lehmer-rank ranges and hands them to
+// local RangeWorker processes. Idle workers pull the next pending range; once none is left, the tail
+// of the largest range still running is taken away from its worker (LIMIT) and queued again. Every
+// finished range is appended with its hits to a checkpoint file named after the definition's
+// fingerprint, so an interrupted run resumes with the missing ranges only and a finished one is not
+// searched again.
+@Service
+public class DistributedSolver {
+
+    public static class DistributedOutcome {
+        private final SolutionSet solutions;
+        private final int workers;
+        private final int rangesCompleted;
+        private final int rangesResumed;
+        private final int rangesStolen;
+        private final long computationTimeMs;
+
+        public DistributedOutcome(SolutionSet solutions, int workers, int rangesCompleted, int rangesResumed,
+                                  int rangesStolen, long computationTimeMs) {
+            this.solutions = solutions;
+            this.workers = workers;
+            this.rangesCompleted = rangesCompleted;
+            this.rangesResumed = rangesResumed;
+            this.rangesStolen = rangesStolen;
+            this.computationTimeMs = computationTimeMs;
+        }
+
+        public SolutionSet getSolutions() {
+            return solutions;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public int getRangesCompleted() {
+            return rangesCompleted;
+        }
+
+        public int getRangesResumed() {
+            return rangesResumed;
+        }
+
+        public int getRangesStolen() {
+            return rangesStolen;
+        }
+
+        public long getComputationTimeMs() {
+            return computationTimeMs;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedSolver.class);
+    private static final String BOOT_LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    // stealing less than two blocks would mostly move work the owner is already doing
+    private static final long MIN_STEAL = 2L * RangeWorker.BLOCK;
+
+    private final Path checkpointDirectory;
+    private final int rangesPerWorker;
+    private final List<String> jvmOptions;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public DistributedSolver(@Value("${puzzle.distributed.checkpoint-dir:${java.io.tmpdir}/puzzle-checkpoints}") Path checkpointDirectory,
+                             @Value("${puzzle.distributed.ranges-per-worker:16}") int rangesPerWorker,
+                             @Value("${puzzle.distributed.worker-jvm-options:-Xmx256m -XX:+UseSerialGC}") String jvmOptions) {
+        this.checkpointDirectory = checkpointDirectory;
+        this.rangesPerWorker = Math.max(1, rangesPerWorker);
+        this.jvmOptions = jvmOptions.isBlank() ? List.of() : List.of(jvmOptions.trim().split("\\s+"));
+    }
+
+    public Path checkpointFile(PuzzleDefinition definition) {
+        return checkpointDirectory.resolve(definition.fingerprint() + ".ranges");
+    }
+
+    // the solution set of a finished run, when the checkpoint covers the whole space; nothing is searched
+    public Optional<SolutionSet> loadCheckpoint(PuzzleDefinition definition) {
+        Run run = new Run(definition, 1, null);
+        try {
+            if (!run.resume().isEmpty()) {
+                return Optional.empty();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return Optional.of(new SolutionSet(run.equation, run.ranks()));
+    }
+
+    // one run at a time: a run already saturates the machine, and two would append to the same checkpoint;
+    // a job waiting for its turn can still be cancelled
+    public DistributedOutcome solve(PuzzleDefinition definition, int workers, GenerationProgress progress) {
+        try {
+            while (!running.tryLock(100, TimeUnit.MILLISECONDS)) {
+                if (progress != null) {
+                    progress.throwIfCancelled();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Génération interrompue");
+        }
+        try {
+            return new Run(definition, Math.max(1, workers), progress).execute();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Génération interrompue");
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private static final class Range {
+        private final long id;
+        private final long from;
+        private long to;
+        private long position;
+        private boolean stealRequested;
+        private final List<Long> hits = new ArrayList<>();
+
+        private Range(long id, long from, long to) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.position = from;
+        }
+    }
+
+    private static final class Worker {
+        private final Process process;
+        private final BufferedWriter input;
+        private boolean ready;
+        private boolean alive = true;
+        private Range current;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.input = process.outputWriter(StandardCharsets.US_ASCII);
+        }
+
+        private void send(String line) throws IOException {
+            input.write(line);
+            input.newLine();
+            input.flush();
+        }
+    }
+
+    private record Event(Worker worker, String line) {
+    }
+
+    private final class Run {
+        private final PuzzleDefinition definition;
+        private final int workerCount;
+        private final GenerationProgress progress;
+        private final PermutationSpace space;
+        private final CompiledEquation equation;
+        private final Path checkpoint;
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final Deque<long[]> pending = new ArrayDeque<>();
+        private final Map<Long, Range> inFlight = new HashMap<>();
+        private final List<Worker> workers = new ArrayList<>();
+        private final List<Long> hits = new ArrayList<>();
+        private BufferedWriter checkpointWriter;
+        private long nextId;
+        private int completed;
+        private int resumed;
+        private int stolen;
+
+        private Run(PuzzleDefinition definition, int workerCount, GenerationProgress progress) {
+            this.definition = definition;
+            this.workerCount = workerCount;
+            this.progress = progress;
+            this.space = PermutationSpace.of(definition);
+            this.equation = EquationCompiler.compile(definition);
+            this.checkpoint = checkpointFile(definition);
+        }
+
+        private DistributedOutcome execute() throws IOException, InterruptedException {
+            long start = System.nanoTime();
+            Files.createDirectories(checkpointDirectory);
+            List<long[]> missing = resume();
+
+            long chunk = Math.max(RangeWorker.BLOCK, Math.ceilDiv(space.size(), (long) workerCount * rangesPerWorker));
+            for (long[] gap : missing) {
+                for (long from = gap[0]; from < gap[1]; from += chunk) {
+                    pending.add(new long[]{from, Math.min(gap[1], from + chunk)});
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                try (BufferedWriter writer = Files.newBufferedWriter(checkpoint, StandardCharsets.US_ASCII,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    checkpointWriter = writer;
+                    // more workers than pending ranges is fine, the extra ones steal; more than there is work to split is not
+                    long remaining = pending.stream().mapToLong(range -> range[1] - range[0]).sum();
+                    coordinate((int) Math.min(workerCount, Math.max(1, remaining / MIN_STEAL)));
+                } finally {
+                    for (Worker worker : workers) {
+                        worker.process.destroyForcibly();
+                    }
+                }
+            }
+
+            long[] ranks = ranks();
+            DistributedOutcome outcome = new DistributedOutcome(new SolutionSet(equation, ranks), workers.size(),
+                    completed, resumed, stolen, (System.nanoTime() - start) / 1_000_000);
+            log.info("distributed count={} workers={} rangesCompleted={} rangesResumed={} rangesStolen={} totalMs={}",
+                    ranks.length, outcome.getWorkers(), completed, resumed, stolen, outcome.getComputationTimeMs());
+            return outcome;
+        }
+
+        private long[] ranks() {
+            return hits.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        }
+
+        // each checkpoint line is "<from> <to> <rank>…"; a line cut short by a crash, or whose ranks are not all
+        // solutions inside its range (a stale or edited file), is ignored and its range searched again
+        private List<long[]> resume() throws IOException {
+            List<long[]> finished = new ArrayList<>();
+            if (Files.exists(checkpoint)) {
+                try (BufferedReader reader = Files.newBufferedReader(checkpoint, StandardCharsets.US_ASCII)) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        long[] values;
+                        try {
+                            values = Arrays.stream(line.trim().split(" ")).mapToLong(Long::parseLong).toArray();
+                        } catch (NumberFormatException ex) {
+                            continue;
+                        }
+                        if (values.length < 2 || values[0] < 0 || values[0] >= values[1] || values[1] > space.size()
+                                || !holdsOnlySolutions(values)) {
+                            continue;
+                        }
+                        finished.add(new long[]{values[0], values[1]});
+                        for (int k = 2; k < values.length; k++) {
+                            hits.add(values[k]);
+                        }
+                        resumed++;
+                    }
+                }
+            }
+            finished.sort(Comparator.comparingLong(range -> range[0]));
+
+            List<long[]> missing = new ArrayList<>();
+            long cursor = 0;
+            for (long[] range : finished) {
+                if (range[0] > cursor) {
+                    missing.add(new long[]{cursor, range[0]});
+                }
+                cursor = Math.max(cursor, range[1]);
+            }
+            if (cursor < space.size()) {
+                missing.add(new long[]{cursor, space.size()});
+            }
+            return missing;
+        }
+
+        private boolean holdsOnlySolutions(long[] line) {
+            for (int k = 2; k < line.length; k++) {
+                if (line[k] < line[0] || line[k] >= line[1] || !equation.isSolution(space.unrank(line[k]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void coordinate(int processes) throws IOException, InterruptedException {
+            for (int k = 0; k < processes; k++) {
+                Worker worker = new Worker(new ProcessBuilder(workerCommand(definition))
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+                workers.add(worker);
+                Thread.ofVirtual().name("range-worker-reader-" + k).start(() -> read(worker));
+            }
+
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                if (progress != null && progress.isCancelled()) {
+                    throw new CancellationException("Génération annulée");
+                }
+                Event event = events.poll(100, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+                handle(event);
+                // ranges are only handed out once every worker has started, so the first ones are spread evenly
+                if (workers.stream().allMatch(worker -> worker.ready || !worker.alive)) {
+                    dispatch();
+                }
+            }
+
+            for (Worker worker : workers) {
+                if (worker.alive) {
+                    worker.input.close();
+                }
+            }
+            for (Worker worker : workers) {
+                worker.process.waitFor(5, TimeUnit.SECONDS);
+            }
+        }
+
+        private void read(Worker worker) {
+            try (BufferedReader reader = worker.process.inputReader(StandardCharsets.US_ASCII)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    events.add(new Event(worker, line));
+                }
+            } catch (IOException ex) {
+                log.warn("range worker output unreadable: {}", ex.getMessage());
+            }
+            events.add(new Event(worker, null));
+        }
+
+        private void handle(Event event) throws IOException {
+            Worker worker = event.worker();
+            if (event.line() == null) {
+                lost(worker);
+                return;
+            }
+
+            String[] message = event.line().split(" ");
+            Range range = message.length > 1 ? inFlight.get(Long.parseLong(message[1])) : null;
+            switch (message[0]) {
+                case "READY" -> worker.ready = true;
+                case "HIT" -> range.hits.add(Long.parseLong(message[2]));
+                case "PROGRESS" -> range.position = Long.parseLong(message[2]);
+                case "LIMITED" -> {
+                    long kept = Long.parseLong(message[2]);
+                    if (range != null) {
+                        range.stealRequested = false;
+                        if (kept >= 0 && kept < range.to) {
+                            pending.addFirst(new long[]{kept, range.to});
+                            range.to = kept;
+                            stolen++;
+                        }
+                    }
+                }
+                case "DONE" -> {
+                    inFlight.remove(range.id);
+                    worker.current = null;
+                    checkpointWriter.write(range.from + " " + range.to
+                            + range.hits.stream().map(hit -> " " + hit).collect(Collectors.joining()));
+                    checkpointWriter.newLine();
+                    checkpointWriter.flush();
+                    hits.addAll(range.hits);
+                    completed++;
+                    if (progress != null) {
+                        progress.addExplored(range.to - range.from, range.hits.size());
+                    }
+                }
+                default -> throw new IllegalStateException("Message inattendu d’un worker : " + event.line());
+            }
+        }
+
+        // the hits of an unfinished range were never checkpointed, so the whole range is simply queued again
+        private void lost(Worker worker) {
+            worker.alive = false;
+            if (worker.current != null) {
+                inFlight.remove(worker.current.id);
+                pending.addFirst(new long[]{worker.current.from, worker.current.to});
+                worker.current = null;
+            }
+            if (workers.stream().noneMatch(candidate -> candidate.alive)) {
+                throw new IllegalStateException("Tous les workers se sont arrêtés avant la fin du calcul");
+            }
+        }
+
+        private void dispatch() throws IOException {
+            for (Worker worker : workers) {
+                if (!worker.alive || !worker.ready || worker.current != null) {
+                    continue;
+                }
+                long[] next = pending.pollFirst();
+                if (next != null) {
+                    Range range = new Range(nextId++, next[0], next[1]);
+                    inFlight.put(range.id, range);
+                    worker.current = range;
+                    worker.send("RANGE " + range.id + " " + range.from + " " + range.to);
+                } else {
+                    steal();
+                }
+            }
+        }
+
+        private void steal() throws IOException {
+            Range largest = null;
+            for (Range range : inFlight.values()) {
+                if (!range.stealRequested && (largest == null || range.to - range.position > largest.to - largest.position)) {
+                    largest = range;
+                }
+            }
+            if (largest == null || largest.to - largest.position < MIN_STEAL) {
+                return;
+            }
+            for (Worker owner : workers) {
+                if (owner.current == largest && owner.alive) {
+                    largest.stealRequested = true;
+                    owner.send("LIMIT " + largest.id + " " + (largest.position + (largest.to - largest.position) / 2));
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<String> workerCommand(PuzzleDefinition definition) {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command()
+                .orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        // inside the executable jar the application classes live under BOOT-INF and need the Boot loader
+        String location = RangeWorker.class.getProtectionDomain().getCodeSource().getLocation().toString();
+        if (location.contains("BOOT-INF")) {
+            command.add("-Dloader.main=" + RangeWorker.class.getName());
+            command.add(BOOT_LAUNCHER);
+        } else {
+            command.add(RangeWorker.class.getName());
+        }
+        command.add(definition.expression());
+        command.add(definition.digits().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        command.add(String.valueOf(definition.slots()));
+        command.add(String.valueOf(definition.target()));
+        return command;
+    }
+}
@@ -0,0 +1,523 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compiles a definition's expression into a hidden subclass of CompiledEquation, so the solver's
+// leaf test is straight-line bytecode instead of a walk over an expression tree.
+public final class EquationCompiler {
+
+    record Template(String[] fragments, int[] slotAt) {
+    }
+
+    private sealed interface Node permits Literal, Slot, Negate, Binary {
+    }
+
+    private record Literal(long value) implements Node {
+    }
+
+    private record Slot(int index) implements Node {
+    }
+
+    private record Negate(Node operand) implements Node {
+    }
+
+    private record Binary(char operator, Node left, Node right) implements Node {
+    }
+
+    private record Token(char kind, long value) {
+        static final char NUMBER = '0';
+        static final char SLOT = 'a';
+        static final char END = '$';
+    }
+
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final String SUPER_NAME = Type.getInternalName(CompiledEquation.class);
+    private static final String CLASS_NAME = SUPER_NAME + "$Generated";
+    private static final String CONSTRUCTOR_DESCRIPTOR =
+            Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(PuzzleDefinition.class));
+
+    private EquationCompiler() {
+    }
+
+    public static CompiledEquation compile(PuzzleDefinition definition) {
+        Node root = parse(definition);
+        byte[] bytecode = generate(root, definition.target());
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytecode, true);
+            return (CompiledEquation) lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, PuzzleDefinition.class)).invoke(definition);
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Compilation de l’équation impossible : " + definition.expression(), ex);
+        }
+    }
+
+    // the checks of compile, without generating a class
+    public static void validate(PuzzleDefinition definition) {
+        parse(definition);
+    }
+
+    private static Node parse(PuzzleDefinition definition) {
+        Node root = new Parser(tokenize(definition), definition.slots()).parse();
+        checkExactRange(root, definition);
+        return root;
+    }
+
+    // the display form, e.g. "a + 13*b/c" renders as "1 + 13×2÷3"; slot values go between the fragments
+    static Template template(PuzzleDefinition definition) {
+        List<String> fragments = new ArrayList<>();
+        List<Integer> slotAt = new ArrayList<>();
+        StringBuilder fragment = new StringBuilder();
+        boolean operandExpected = true;
+        for (Token token : tokenize(definition)) {
+            switch (token.kind()) {
+                case Token.SLOT -> {
+                    fragments.add(fragment.toString());
+                    fragment.setLength(0);
+                    slotAt.add((int) token.value());
+                    operandExpected = false;
+                }
+                case Token.NUMBER -> {
+                    fragment.append(token.value());
+                    operandExpected = false;
+                }
+                case '+' -> fragment.append(" + ");
+                case '-' -> fragment.append(operandExpected ? "−" : " − ");
+                case '*' -> fragment.append('×');
+                case '/' -> fragment.append('÷');
+                case '(' -> fragment.append('(');
+                case ')' -> {
+                    fragment.append(')');
+                    operandExpected = false;
+                }
+                default -> {
+                }
+            }
+            if (token.kind() == '+' || token.kind() == '-' || token.kind() == '*' || token.kind() == '/' || token.kind() == '(') {
+                operandExpected = true;
+            }
+        }
+        fragment.append(" = ").append(definition.target());
+        fragments.add(fragment.toString());
+        return new Template(fragments.toArray(String[]::new), slotAt.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    static Bounds bounds(PuzzleDefinition definition) {
+        return new Bounds(new Parser(tokenize(definition), definition.slots()).parse());
+    }
+
+    // Interval arithmetic over the parsed expression, flattened in post-order so that it runs without
+    // recursion or allocation: given the lowest and highest value each slot can still take, the range
+    // left at the last node encloses every value the expression can reach.
+    static final class Bounds {
+        private static final byte LITERAL = 0;
+        private static final byte SLOT = 1;
+        private static final byte NEGATE = 2;
+        private static final byte ADD = 3;
+        private static final byte SUBTRACT = 4;
+        private static final byte MULTIPLY = 5;
+        private static final byte DIVIDE = 6;
+
+        private final byte[] operations;
+        private final long[] operands;
+        private final int[] left;
+
+        private Bounds(Node root) {
+            List<long[]> nodes = new ArrayList<>();
+            flatten(root, nodes);
+            operations = new byte[nodes.size()];
+            operands = new long[nodes.size()];
+            left = new int[nodes.size()];
+            for (int k = 0; k < nodes.size(); k++) {
+                operations[k] = (byte) nodes.get(k)[0];
+                operands[k] = nodes.get(k)[1];
+                left[k] = (int) nodes.get(k)[2];
+            }
+        }
+
+        // each node is {operation, operand, index of the left operand}; the right operand of a binary
+        // node is always the node just before it
+        private static int flatten(Node node, List<long[]> nodes) {
+            switch (node) {
+                case Literal literal -> nodes.add(new long[]{LITERAL, literal.value(), -1});
+                case Slot slot -> nodes.add(new long[]{SLOT, slot.index(), -1});
+                case Negate negate -> nodes.add(new long[]{NEGATE, 0, flatten(negate.operand(), nodes)});
+                case Binary binary -> {
+                    int leftIndex = flatten(binary.left(), nodes);
+                    flatten(binary.right(), nodes);
+                    byte operation = switch (binary.operator()) {
+                        case '+' -> ADD;
+                        case '-' -> SUBTRACT;
+                        case '*' -> MULTIPLY;
+                        default -> DIVIDE;
+                    };
+                    nodes.add(new long[]{operation, 0, leftIndex});
+                }
+            }
+            return nodes.size() - 1;
+        }
+
+        int size() {
+            return operations.length;
+        }
+
+        // false when no assignment within the slot ranges can reach the target
+        boolean canReach(long target, double[] slotLow, double[] slotHigh, double[] low, double[] high) {
+            for (int k = 0; k < operations.length; k++) {
+                int l = left[k];
+                int r = k - 1;
+                switch (operations[k]) {
+                    case LITERAL -> {
+                        low[k] = operands[k];
+                        high[k] = operands[k];
+                    }
+                    case SLOT -> {
+                        low[k] = slotLow[(int) operands[k]];
+                        high[k] = slotHigh[(int) operands[k]];
+                    }
+                    case NEGATE -> {
+                        low[k] = -high[l];
+                        high[k] = -low[l];
+                    }
+                    case ADD -> {
+                        low[k] = low[l] + low[r];
+                        high[k] = high[l] + high[r];
+                    }
+                    case SUBTRACT -> {
+                        low[k] = low[l] - high[r];
+                        high[k] = high[l] - low[r];
+                    }
+                    case MULTIPLY -> multiply(k, low[l], high[l], low[r], high[r], low, high);
+                    default -> {
+                        if (low[r] <= 0 && high[r] >= 0) {
+                            low[k] = Double.NEGATIVE_INFINITY;
+                            high[k] = Double.POSITIVE_INFINITY;
+                        } else {
+                            multiply(k, low[l], high[l], 1 / high[r], 1 / low[r], low, high);
+                        }
+                    }
+                }
+            }
+            int root = operations.length - 1;
+            // floating point rounding must never prune an exact solution
+            double scale = Math.max(1, Math.abs((double) target));
+            if (Double.isFinite(low[root])) {
+                scale = Math.max(scale, Math.abs(low[root]));
+            }
+            if (Double.isFinite(high[root])) {
+                scale = Math.max(scale, Math.abs(high[root]));
+            }
+            double tolerance = 1e-9 * scale;
+            return !(low[root] > target + tolerance || high[root] < target - tolerance);
+        }
+
+        private static void multiply(int k, double a, double b, double c, double d, double[] low, double[] high) {
+            double ac = a * c;
+            double ad = a * d;
+            double bc = b * c;
+            double bd = b * d;
+            low[k] = Math.min(Math.min(ac, ad), Math.min(bc, bd));
+            high[k] = Math.max(Math.max(ac, ad), Math.max(bc, bd));
+            // 0 × ∞ leaves NaN: give up on this node rather than prune on it
+            if (Double.isNaN(low[k]) || Double.isNaN(high[k])) {
+                low[k] = Double.NEGATIVE_INFINITY;
+                high[k] = Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    private static List<Token> tokenize(PuzzleDefinition definition) {
+        String expression = definition.expression();
+        List<Token> tokens = new ArrayList<>();
+        for (int at = 0; at < expression.length(); ) {
+            char c = expression.charAt(at);
+            if (Character.isWhitespace(c)) {
+                at++;
+            } else if (c >= '0' && c <= '9') {
+                int end = at;
+                while (end < expression.length() && Character.isDigit(expression.charAt(end))) {
+                    end++;
+                }
+                try {
+                    tokens.add(new Token(Token.NUMBER, Long.parseLong(expression.substring(at, end))));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Nombre trop grand dans l’expression : " + expression.substring(at, end));
+                }
+                at = end;
+            } else if (c >= 'a' && c < 'a' + definition.slots()) {
+                tokens.add(new Token(Token.SLOT, c - 'a'));
+                at++;
+            } else if ("+-*/()".indexOf(c) >= 0) {
+                tokens.add(new Token(c, 0));
+                at++;
+            } else {
+                throw new IllegalArgumentException("Caractère inattendu '" + c + "' dans l’expression : " + expression);
+            }
+        }
+        tokens.add(new Token(Token.END, 0));
+        return tokens;
+    }
+
+    private static final class Parser {
+        private final List<Token> tokens;
+        private final int slots;
+        private int at;
+
+        private Parser(List<Token> tokens, int slots) {
+            this.tokens = tokens;
+            this.slots = slots;
+        }
+
+        private Node parse() {
+            Node root = sum();
+            expect(Token.END);
+            return root;
+        }
+
+        private Node sum() {
+            Node node = product();
+            while (peek() == '+' || peek() == '-') {
+                char operator = next().kind();
+                node = new Binary(operator, node, product());
+            }
+            return node;
+        }
+
+        private Node product() {
+            Node node = unary();
+            while (peek() == '*' || peek() == '/') {
+                char operator = next().kind();
+                node = new Binary(operator, node, unary());
+            }
+            return node;
+        }
+
+        private Node unary() {
+            if (peek() == '-') {
+                next();
+                return new Negate(unary());
+            }
+            Token token = next();
+            return switch (token.kind()) {
+                case Token.NUMBER -> new Literal(token.value());
+                case Token.SLOT -> new Slot((int) token.value());
+                case '(' -> {
+                    Node inner = sum();
+                    expect(')');
+                    yield inner;
+                }
+                default -> throw new IllegalArgumentException("Expression invalide : terme attendu en position " + at);
+            };
+        }
+
+        private char peek() {
+            return tokens.get(at).kind();
+        }
+
+        private Token next() {
+            return tokens.get(at++);
+        }
+
+        private void expect(char kind) {
+            if (next().kind() != kind) {
+                throw new IllegalArgumentException("Expression invalide : '" + kind + "' attendu en position " + (at - 1));
+            }
+        }
+    }
+
+    // The generated isSolution works on unreduced fractions of longs without overflow checks, so a
+    // definition is only accepted when every numerator and denominator a node can reach with its
+    // digits, and the final denominator times the target, stay within Long.MAX_VALUE.
+    private static void checkExactRange(Node root, PuzzleDefinition definition) {
+        BigInteger[] magnitude = magnitude(root, BigInteger.valueOf(definition.digits().getLast()), definition);
+        checkRange(magnitude[1].multiply(BigInteger.valueOf(definition.target()).abs()), definition);
+    }
+
+    // upper bounds of |numerator| and |denominator|, following the fraction rules of FractionEmitter
+    private static BigInteger[] magnitude(Node node, BigInteger maxDigit, PuzzleDefinition definition) {
+        BigInteger[] bound = switch (node) {
+            case Literal literal -> new BigInteger[]{BigInteger.valueOf(literal.value()), BigInteger.ONE};
+            case Slot slot -> new BigInteger[]{maxDigit, BigInteger.ONE};
+            case Negate negate -> magnitude(negate.operand(), maxDigit, definition);
+            case Binary binary -> {
+                BigInteger[] left = magnitude(binary.left(), maxDigit, definition);
+                BigInteger[] right = magnitude(binary.right(), maxDigit, definition);
+                yield switch (binary.operator()) {
+                    case '+', '-' -> new BigInteger[]{
+                            left[0].multiply(right[1]).add(right[0].multiply(left[1])), left[1].multiply(right[1])};
+                    case '*' -> new BigInteger[]{left[0].multiply(right[0]), left[1].multiply(right[1])};
+                    default -> new BigInteger[]{left[0].multiply(right[1]), left[1].multiply(right[0])};
+                };
+            }
+        };
+        checkRange(bound[0], definition);
+        checkRange(bound[1], definition);
+        return bound;
+    }
+
+    private static void checkRange(BigInteger magnitude, PuzzleDefinition definition) {
+        if (magnitude.compareTo(LONG_MAX) > 0) {
+            throw new IllegalArgumentException("Expression ou cible trop grande pour un calcul exact sur 64 bits : "
+                    + definition.expression() + " = " + definition.target());
+        }
+    }
+
+    private static byte[] generate(Node root, long target) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null, SUPER_NAME, null);
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 1);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor isSolution = writer.visitMethod(Opcodes.ACC_PUBLIC, "isSolution", "([I)Z", null, null);
+        isSolution.visitCode();
+        int fraction = new FractionEmitter(isSolution).emit(root);
+        Label rejected = new Label();
+        isSolution.visitVarInsn(Opcodes.LLOAD, fraction + 2);
+        isSolution.visitInsn(Opcodes.LCONST_0);
+        isSolution.visitInsn(Opcodes.LCMP);
+        isSolution.visitJumpInsn(Opcodes.IFEQ, rejected);
+        isSolution.visitVarInsn(Opcodes.LLOAD, fraction);
+        isSolution.visitVarInsn(Opcodes.LLOAD, fraction + 2);
+        isSolution.visitLdcInsn(target);
+        isSolution.visitInsn(Opcodes.LMUL);
+        isSolution.visitInsn(Opcodes.LCMP);
+        isSolution.visitJumpInsn(Opcodes.IFNE, rejected);
+        isSolution.visitInsn(Opcodes.ICONST_1);
+        isSolution.visitInsn(Opcodes.IRETURN);
+        isSolution.visitLabel(rejected);
+        isSolution.visitInsn(Opcodes.ICONST_0);
+        isSolution.visitInsn(Opcodes.IRETURN);
+        isSolution.visitMaxs(0, 0);
+        isSolution.visitEnd();
+
+        MethodVisitor evaluate = writer.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", "([I)D", null, null);
+        evaluate.visitCode();
+        emitDouble(evaluate, root);
+        evaluate.visitInsn(Opcodes.DRETURN);
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void emitDouble(MethodVisitor method, Node node) {
+        switch (node) {
+            case Literal literal -> method.visitLdcInsn((double) literal.value());
+            case Slot slot -> {
+                loadDigit(method, slot.index());
+                method.visitInsn(Opcodes.I2D);
+            }
+            case Negate negate -> {
+                emitDouble(method, negate.operand());
+                method.visitInsn(Opcodes.DNEG);
+            }
+            case Binary binary -> {
+                emitDouble(method, binary.left());
+                emitDouble(method, binary.right());
+                method.visitInsn(switch (binary.operator()) {
+                    case '+' -> Opcodes.DADD;
+                    case '-' -> Opcodes.DSUB;
+                    case '*' -> Opcodes.DMUL;
+                    default -> Opcodes.DDIV;
+                });
+            }
+        }
+    }
+
+    private static void loadDigit(MethodVisitor method, int slot) {
+        method.visitVarInsn(Opcodes.ALOAD, 1);
+        method.visitIntInsn(Opcodes.BIPUSH, slot);
+        method.visitInsn(Opcodes.IALOAD);
+    }
+
+    // Every node leaves an unreduced numerator/denominator pair in two long locals (n at the returned
+    // slot, d right after it): n1/d1 ± n2/d2 = (n1·d2 ± n2·d1) / (d1·d2), and so on.
+    private static final class FractionEmitter {
+        private final MethodVisitor method;
+        private int nextLocal = 2;
+
+        private FractionEmitter(MethodVisitor method) {
+            this.method = method;
+        }
+
+        private int emit(Node node) {
+            int local = nextLocal;
+            switch (node) {
+                case Literal literal -> {
+                    nextLocal += 4;
+                    method.visitLdcInsn(literal.value());
+                    storeWithUnitDenominator(local);
+                }
+                case Slot slot -> {
+                    nextLocal += 4;
+                    loadDigit(method, slot.index());
+                    method.visitInsn(Opcodes.I2L);
+                    storeWithUnitDenominator(local);
+                }
+                case Negate negate -> {
+                    local = emit(negate.operand());
+                    method.visitVarInsn(Opcodes.LLOAD, local);
+                    method.visitInsn(Opcodes.LNEG);
+                    method.visitVarInsn(Opcodes.LSTORE, local);
+                }
+                case Binary binary -> {
+                    int left = emit(binary.left());
+                    int right = emit(binary.right());
+                    local = nextLocal;
+                    nextLocal += 4;
+                    switch (binary.operator()) {
+                        case '+', '-' -> {
+                            multiply(left, right + 2);
+                            multiply(right, left + 2);
+                            method.visitInsn(binary.operator() == '+' ? Opcodes.LADD : Opcodes.LSUB);
+                            method.visitVarInsn(Opcodes.LSTORE, local);
+                            multiply(left + 2, right + 2);
+                        }
+                        case '*' -> {
+                            multiply(left, right);
+                            method.visitVarInsn(Opcodes.LSTORE, local);
+                            multiply(left + 2, right + 2);
+                        }
+                        default -> {
+                            multiply(left, right + 2);
+                            method.visitVarInsn(Opcodes.LSTORE, local);
+                            multiply(left + 2, right);
+                        }
+                    }
+                    method.visitVarInsn(Opcodes.LSTORE, local + 2);
+                }
+            }
+            return local;
+        }
+
+        private void storeWithUnitDenominator(int local) {
+            method.visitVarInsn(Opcodes.LSTORE, local);
+            method.visitInsn(Opcodes.LCONST_1);
+            method.visitVarInsn(Opcodes.LSTORE, local + 2);
+        }
+
+        private void multiply(int leftLocal, int rightLocal) {
+            method.visitVarInsn(Opcodes.LLOAD, leftLocal);
+            method.visitVarInsn(Opcodes.LLOAD, rightLocal);
+            method.visitInsn(Opcodes.LMUL);
+        }
+    }
+}
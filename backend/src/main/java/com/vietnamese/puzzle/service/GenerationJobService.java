@@ -0,0 +1,177 @@
+package com.vietnamese.puzzle.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+public class GenerationJobService {
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    public static class GenerationJob {
+        private final String id;
+        private final SolverMode mode;
+        // worker processes of a distributed run, null when the search runs in-process with mode
+        private final Integer workers;
+        private final GenerationProgress progress = new GenerationProgress();
+        private final Instant submittedAt = Instant.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile SolutionService.GenerationResult result;
+        private volatile String error;
+
+        public GenerationJob(String id, SolverMode mode) {
+            this(id, mode, null);
+        }
+
+        private GenerationJob(String id, SolverMode mode, Integer workers) {
+            this.id = id;
+            this.mode = mode;
+            this.workers = workers;
+        }
+
+        public static GenerationJob distributed(String id, int workers) {
+            return new GenerationJob(id, null, workers);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public SolverMode getMode() {
+            return mode;
+        }
+
+        public boolean isDistributed() {
+            return workers != null;
+        }
+
+        public Integer getWorkers() {
+            return workers;
+        }
+
+        public GenerationProgress getProgress() {
+            return progress;
+        }
+
+        public JobStatus getStatus() {
+            return status;
+        }
+
+        public Instant getSubmittedAt() {
+            return submittedAt;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        public SolutionService.GenerationResult getResult() {
+            return result;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        private void finish(JobStatus finalStatus) {
+            finishedAt = Instant.now();
+            status = finalStatus;
+        }
+    }
+
+    private final SolutionService solutionService;
+    private final Duration retention;
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public GenerationJobService(SolutionService solutionService,
+                                @Value("${puzzle.jobs.retention:PT1H}") Duration retention) {
+        this.solutionService = solutionService;
+        this.retention = retention;
+    }
+
+    public GenerationJob submit(SolverMode mode) {
+        return enqueue(new GenerationJob(UUID.randomUUID().toString(), mode));
+    }
+
+    public GenerationJob submitDistributed(int workers) {
+        return enqueue(GenerationJob.distributed(UUID.randomUUID().toString(), workers));
+    }
+
+    private GenerationJob enqueue(GenerationJob job) {
+        evictExpired();
+        jobs.put(job.getId(), job);
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public GenerationJob getJob(String id) {
+        GenerationJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Tâche introuvable");
+        }
+        return job;
+    }
+
+    public GenerationJob cancel(String id) {
+        GenerationJob job = getJob(id);
+        job.progress.cancel();
+        return job;
+    }
+
+    private void run(GenerationJob job) {
+        if (job.progress.isCancelled()) {
+            job.finish(JobStatus.CANCELLED);
+            return;
+        }
+
+        job.startedAt = Instant.now();
+        job.status = JobStatus.RUNNING;
+        try {
+            job.result = job.isDistributed()
+                    ? solutionService.generateAndSaveDistributed(job.workers, job.progress)
+                    : solutionService.generateAndSaveAll(job.mode, job.progress);
+            job.finish(JobStatus.COMPLETED);
+        } catch (CancellationException ex) {
+            job.finish(JobStatus.CANCELLED);
+        } catch (RuntimeException ex) {
+            job.error = ex.getMessage();
+            job.finish(JobStatus.FAILED);
+        }
+    }
+
+    private void evictExpired() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.status.isFinished() && job.finishedAt.isBefore(threshold));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(job -> job.progress.cancel());
+        executor.shutdown();
+    }
+}
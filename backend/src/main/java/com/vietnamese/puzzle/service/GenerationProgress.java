@@ -0,0 +1,47 @@
+package com.vietnamese.puzzle.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GenerationProgress {
+
+    private final AtomicLong permutationsExplored = new AtomicLong();
+    private final AtomicLong solutionsFound = new AtomicLong();
+    private final AtomicLong rowsPersisted = new AtomicLong();
+    private volatile boolean cancelled;
+
+    public long permutationsExplored() {
+        return permutationsExplored.get();
+    }
+
+    public long solutionsFound() {
+        return solutionsFound.get();
+    }
+
+    public long rowsPersisted() {
+        return rowsPersisted.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    void addExplored(long permutations, long solutions) {
+        permutationsExplored.addAndGet(permutations);
+        solutionsFound.addAndGet(solutions);
+    }
+
+    void addPersisted(long rows) {
+        rowsPersisted.addAndGet(rows);
+    }
+
+    void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Génération annulée");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+
+import java.util.List;
+
+// Ordered arrangements of `slots` distinct digits drawn from a digit set, numbered by Lehmer rank:
+// the rank order is the lexicographic order of the arrangements.
+public final class PermutationSpace {
+
+    private final int slots;
+    private final int digitMask;
+    private final long[] radix;
+    private final long size;
+
+    public PermutationSpace(int slots, int digitMask) {
+        int digitCount = Integer.bitCount(digitMask);
+        this.slots = slots;
+        this.digitMask = digitMask;
+        this.radix = new long[slots];
+        long weight = 1;
+        for (int k = slots - 1; k >= 0; k--) {
+            radix[k] = weight;
+            weight *= digitCount - k;
+        }
+        this.size = weight;
+    }
+
+    public static PermutationSpace of(PuzzleDefinition definition) {
+        return new PermutationSpace(definition.slots(), definition.digitMask());
+    }
+
+    public int slots() {
+        return slots;
+    }
+
+    public int digitMask() {
+        return digitMask;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // rank of an arrangement, or -1 when the digits are not one
+    public long rank(int[] digits) {
+        if (digits == null || digits.length != slots) {
+            return -1;
+        }
+        int remaining = digitMask;
+        long rank = 0;
+        for (int k = 0; k < slots; k++) {
+            int digit = digits[k];
+            if (digit < 0 || digit > 31 || (remaining & (1 << digit)) == 0) {
+                return -1;
+            }
+            rank += radix[k] * Integer.bitCount(remaining & ((1 << digit) - 1));
+            remaining &= ~(1 << digit);
+        }
+        return rank;
+    }
+
+    public long rank(byte[] digits, int offset) {
+        int remaining = digitMask;
+        long rank = 0;
+        for (int k = 0; k < slots; k++) {
+            int digit = digits[offset + k];
+            if (digit < 0 || digit > 31 || (remaining & (1 << digit)) == 0) {
+                return -1;
+            }
+            rank += radix[k] * Integer.bitCount(remaining & ((1 << digit) - 1));
+            remaining &= ~(1 << digit);
+        }
+        return rank;
+    }
+
+    public int[] unrank(long rank) {
+        int[] digits = new int[slots];
+        int remaining = digitMask;
+        for (int k = 0; k < slots; k++) {
+            long ordinal = rank / radix[k];
+            rank %= radix[k];
+            int digit = remaining;
+            for (long skip = 0; skip < ordinal; skip++) {
+                digit &= digit - 1;
+            }
+            digits[k] = Integer.numberOfTrailingZeros(digit);
+            remaining &= ~Integer.lowestOneBit(digit);
+        }
+        return digits;
+    }
+
+    // steps digits to the arrangement of the next rank; false when it already was the last one
+    public boolean advance(int[] digits) {
+        int used = 0;
+        for (int digit : digits) {
+            used |= 1 << digit;
+        }
+        for (int k = slots - 1; k >= 0; k--) {
+            used &= ~(1 << digits[k]);
+            int larger = digitMask & ~used & -(1 << (digits[k] + 1));
+            if (larger != 0) {
+                digits[k] = Integer.numberOfTrailingZeros(larger);
+                used |= 1 << digits[k];
+                int free = digitMask & ~used;
+                for (int j = k + 1; j < slots; j++) {
+                    digits[j] = Integer.numberOfTrailingZeros(free);
+                    free &= free - 1;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the positions as an arrangement of this space, or null when they are not one
+    public int[] toArrangement(List<Integer> positions) {
+        if (positions == null || positions.size() != slots) {
+            return null;
+        }
+        int[] digits = new int[slots];
+        int seen = 0;
+        for (int k = 0; k < slots; k++) {
+            Integer value = positions.get(k);
+            if (value == null || value < 0 || value > 31 || (digitMask & (1 << value)) == 0 || (seen & (1 << value)) != 0) {
+                return null;
+            }
+            seen |= 1 << value;
+            digits[k] = value;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,70 @@
+package com.vietnamese.puzzle.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class PuzzleMetrics {
+
+    private record SearchMeters(Counter nodesVisited, Counter nodesPruned, Counter solutionsFound, Timer solveTime) {
+    }
+
+    private final Map<SolverMode, SearchMeters> searchMeters = new EnumMap<>(SolverMode.class);
+    private final Timer persistenceTime;
+    private final Counter rowsInserted;
+    private final Counter rowsAlreadyPresent;
+    private final Timer validateTime;
+    private final Timer validateBatchTime;
+
+    public PuzzleMetrics(MeterRegistry registry) {
+        for (SolverMode mode : SolverMode.values()) {
+            String tag = mode.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            searchMeters.put(mode, new SearchMeters(
+                    Counter.builder("puzzle.solver.nodes.visited").tag("mode", tag).register(registry),
+                    Counter.builder("puzzle.solver.nodes.pruned").tag("mode", tag).register(registry),
+                    Counter.builder("puzzle.solver.solutions.found").tag("mode", tag).register(registry),
+                    Timer.builder("puzzle.solver.solve.time").tag("mode", tag).register(registry)));
+        }
+        this.persistenceTime = Timer.builder("puzzle.persistence.time").register(registry);
+        this.rowsInserted = Counter.builder("puzzle.persistence.rows").tag("outcome", "inserted").register(registry);
+        this.rowsAlreadyPresent = Counter.builder("puzzle.persistence.rows").tag("outcome", "present").register(registry);
+        this.validateTime = Timer.builder("puzzle.validate.time").tag("kind", "single")
+                .publishPercentileHistogram().register(registry);
+        this.validateBatchTime = Timer.builder("puzzle.validate.time").tag("kind", "batch")
+                .publishPercentileHistogram().register(registry);
+    }
+
+    public static PuzzleMetrics unregistered() {
+        return new PuzzleMetrics(new SimpleMeterRegistry());
+    }
+
+    public void recordSearch(SolverMode mode, PuzzleSolverService.SolverStatistics statistics, long nanos) {
+        SearchMeters meters = searchMeters.get(mode);
+        meters.nodesVisited().increment(statistics.nodesVisited());
+        meters.nodesPruned().increment(statistics.nodesPruned());
+        meters.solutionsFound().increment(statistics.solutionsFound());
+        meters.solveTime().record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPersistence(int inserted, int alreadyPresent, long nanos) {
+        rowsInserted.increment(inserted);
+        rowsAlreadyPresent.increment(alreadyPresent);
+        persistenceTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordValidation(long nanos) {
+        validateTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatchValidation(long nanos) {
+        validateBatchTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,34 +1,74 @@
 package com.vietnamese.puzzle.service;
 
+import com.vietnamese.puzzle.model.PackedDigitList;
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class PuzzleSolverService {
 
-    private static final double TARGET = 66.0;
-    private static final double TOLERANCE = 1e-6;
+    private static final int SPLIT_DEPTH = 2;
+    // Hand-derived knowledge of the expression of PuzzleDefinition.DEFAULT, for any target and any nine
+    // non-zero digits: its bounds, symmetries and incremental form. Other definitions prune with interval
+    // bounds of their parsed expression and run the symmetry-reduced and minimal-change modes as a plain
+    // backtracking search.
+    private static final String DEFAULT_EXPRESSION = PuzzleDefinition.DEFAULT.expression().replaceAll("\\s+", "");
+    private static final int[] LINEAR_COEFFICIENTS = {1, 0, 0, 1, 12, -1, 0, 0, 0};
+    // e (coefficient 12) and both divisors first, so the bound tightens as early as possible
+    private static final int[] BOUND_ORDER = {4, 2, 8, 1, 6, 7, 5, 0, 3};
 
     public static class PuzzleValidation {
         private final boolean isValid;
-        private final String equation;
+        private final int[] digits;
         private final double result;
+        private final CompiledEquation compiled;
+        private String equation;
 
         public PuzzleValidation(boolean isValid, String equation, double result) {
             this.isValid = isValid;
+            this.digits = null;
+            this.compiled = null;
             this.equation = equation;
             this.result = result;
         }
 
+        private PuzzleValidation(boolean isValid, int[] digits, double result, CompiledEquation compiled) {
+            this.isValid = isValid;
+            this.digits = digits;
+            this.compiled = compiled;
+            this.result = result;
+        }
+
         public boolean isValid() {
             return isValid;
         }
 
         public String equation() {
+            if (equation == null) {
+                equation = compiled.format(digits);
+            }
             return equation;
         }
 
@@ -37,6 +77,48 @@ public class PuzzleSolverService {
         }
     }
 
+    public static class BatchValidation {
+        private final CompiledEquation compiled;
+        private final PermutationSpace space;
+        private final byte[] digits;
+        private final boolean[] valid;
+        private final double[] results;
+        private final int validCount;
+
+        public BatchValidation(CompiledEquation compiled, byte[] digits, boolean[] valid, double[] results, int validCount) {
+            this.compiled = compiled;
+            this.space = PermutationSpace.of(compiled.definition());
+            this.digits = digits;
+            this.valid = valid;
+            this.results = results;
+            this.validCount = validCount;
+        }
+
+        public int size() {
+            return valid.length;
+        }
+
+        public int validCount() {
+            return validCount;
+        }
+
+        public boolean isValid(int item) {
+            return valid[item];
+        }
+
+        public double result(int item) {
+            return results[item];
+        }
+
+        public String equation(int item) {
+            int offset = item * space.slots();
+            if (space.rank(digits, offset) < 0) {
+                return compiled.format((List<Integer>) null);
+            }
+            return compiled.format(unpack(digits, offset, new int[space.slots()]));
+        }
+    }
+
     public static class SolutionCandidate {
         private final List<Integer> positions;
         private final String equation;
@@ -61,86 +143,734 @@ public class PuzzleSolverService {
         }
     }
 
+    private final PuzzleDefinition definition;
+    private final CompiledEquation equation;
+    private final PermutationSpace space;
+    private final int[] digitValues;
+    private final boolean specialized;
+    private final EquationCompiler.Bounds bounds;
+    private final int[] boundOrder;
+    private final int[] boundOrderMasks;
+    // built at startup from the bounded search (SolutionService.loadIndex), or adopted from a distributed
+    // run when the space exceeds maxSpace and may not be searched in-process
+    private volatile SolutionSet solutions;
+    private final ReentrantLock solutionsLock = new ReentrantLock();
+    // the definition is fixed, so each mode's outcome stays valid for the lifetime of the service
+    private final Map<SolverMode, SolveOutcome> memoized = new ConcurrentHashMap<>();
+    private final PuzzleMetrics metrics;
+    private final long maxSpace;
+
+    public PuzzleSolverService() {
+        this(PuzzleDefinition.DEFAULT);
+    }
+
+    public PuzzleSolverService(PuzzleDefinition definition) {
+        this(definition, PuzzleMetrics.unregistered());
+    }
+
+    public PuzzleSolverService(PuzzleDefinition definition, PuzzleMetrics metrics) {
+        this(definition, metrics, Long.MAX_VALUE);
+    }
+
+    @Autowired
+    public PuzzleSolverService(PuzzleDefinition definition, PuzzleMetrics metrics,
+                               @Value("${puzzle.definitions.max-space:20000000}") long maxSpace) {
+        this.definition = definition;
+        this.equation = EquationCompiler.compile(definition);
+        this.space = PermutationSpace.of(definition);
+        this.digitValues = definition.digits().stream().mapToInt(Integer::intValue).toArray();
+        // the hand-derived tables cover the nine variables of the default expression, all of them assigned
+        this.specialized = definition.expression().replaceAll("\\s+", "").equals(DEFAULT_EXPRESSION)
+                && definition.slots() == BOUND_ORDER.length && digitValues.length == BOUND_ORDER.length
+                && Arrays.stream(digitValues).allMatch(digit -> digit > 0);
+        this.bounds = EquationCompiler.bounds(definition);
+        this.boundOrder = specialized ? BOUND_ORDER : boundOrder();
+        this.boundOrderMasks = new int[boundOrder.length + 1];
+        for (int depth = 0; depth < boundOrder.length; depth++) {
+            boundOrderMasks[depth + 1] = boundOrderMasks[depth] | (1 << boundOrder[depth]);
+        }
+        this.metrics = metrics;
+        this.maxSpace = maxSpace;
+    }
+
+    // slots whose value narrows the range of the expression the most are assigned first
+    private int[] boundOrder() {
+        int slots = space.slots();
+        double[] slotLow = new double[slots];
+        double[] slotHigh = new double[slots];
+        double[] low = new double[bounds.size()];
+        double[] high = new double[bounds.size()];
+        double[] width = new double[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            for (int digit : digitValues) {
+                Arrays.fill(slotLow, digitValues[0]);
+                Arrays.fill(slotHigh, digitValues[digitValues.length - 1]);
+                slotLow[slot] = digit;
+                slotHigh[slot] = digit;
+                bounds.canReach(definition.target(), slotLow, slotHigh, low, high);
+                double range = high[bounds.size() - 1] - low[bounds.size() - 1];
+                width[slot] += Double.isFinite(range) ? range : Double.MAX_VALUE / digitValues.length;
+            }
+        }
+        return IntStream.range(0, slots).boxed()
+                .sorted(Comparator.comparingDouble(slot -> width[slot]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public PuzzleDefinition definition() {
+        return definition;
+    }
+
+    public CompiledEquation equation() {
+        return equation;
+    }
+
+    public PermutationSpace space() {
+        return space;
+    }
+
+    public boolean searchesInProcess() {
+        return space.size() <= maxSpace;
+    }
+
+    public SolutionSet solutionSet() {
+        SolutionSet current = solutions;
+        if (current != null) {
+            return current;
+        }
+        if (!searchesInProcess()) {
+            throw tooLargeForInProcessSearch();
+        }
+        solutionsLock.lock();
+        try {
+            if (solutions == null) {
+                solutions = new SolutionSet(equation, solveWithStatistics(SolverMode.BRANCH_AND_BOUND).solutions().stream()
+                        .mapToLong(candidate -> space.rank(space.toArrangement(candidate.positions())))
+                        .sorted()
+                        .toArray());
+            }
+            return solutions;
+        } finally {
+            solutionsLock.unlock();
+        }
+    }
+
+    // keeps a solution set computed elsewhere as the index, unless one has already been built
+    public SolutionSet adopt(SolutionSet computed) {
+        if (!computed.definition().fingerprint().equals(definition.fingerprint())) {
+            throw new IllegalArgumentException("L’ensemble de solutions ne correspond pas à la définition du puzzle");
+        }
+        solutionsLock.lock();
+        try {
+            if (solutions == null) {
+                solutions = computed;
+            }
+            return solutions;
+        } finally {
+            solutionsLock.unlock();
+        }
+    }
+
     public PuzzleValidation validate(List<Integer> positions) {
-        if (positions == null || positions.size() != 9) {
-            return new PuzzleValidation(false, formatEquation(positions), 0.0);
+        int[] digits = space.toArrangement(positions);
+        if (digits == null) {
+            return new PuzzleValidation(false, equation.format(positions), 0.0);
         }
 
-        Set<Integer> unique = new HashSet<>(positions);
-        boolean containsAllDigits = unique.size() == 9 && positions.stream().allMatch(d -> d >= 1 && d <= 9);
+        boolean isValid = isSolution(space.rank(digits), digits);
+        return new PuzzleValidation(isValid, digits, isValid ? definition.target() : equation.evaluate(digits), equation);
+    }
 
-        if (!containsAllDigits) {
-            return new PuzzleValidation(false, formatEquation(positions), 0.0);
+    // digits holds consecutive combinations of one byte per slot; anything that is not an arrangement scores 0.0
+    public BatchValidation validateBatch(byte[] digits) {
+        int slots = space.slots();
+        int count = digits.length / slots;
+        boolean[] valid = new boolean[count];
+        double[] results = new double[count];
+        int[] scratch = new int[slots];
+        int validCount = 0;
+        for (int item = 0, offset = 0; item < count; item++, offset += slots) {
+            long rank = space.rank(digits, offset);
+            if (rank < 0) {
+                continue;
+            }
+            unpack(digits, offset, scratch);
+            if (isSolution(rank, scratch)) {
+                valid[item] = true;
+                results[item] = definition.target();
+                validCount++;
+            } else {
+                results[item] = equation.evaluate(scratch);
+            }
         }
+        return new BatchValidation(equation, digits, valid, results, validCount);
+    }
+
+    public boolean isValid(int[] digits) {
+        long rank = space.rank(digits);
+        return rank >= 0 && isSolution(rank, digits);
+    }
 
-        double result = evaluate(positions);
-        boolean isValid = Math.abs(result - TARGET) < TOLERANCE;
+    // until a distributed run supplies the index of a large space, the exact check of the compiled equation answers
+    private boolean isSolution(long rank, int[] digits) {
+        if (solutions == null && !searchesInProcess()) {
+            return equation.isSolution(digits);
+        }
+        return solutionSet().contains(rank);
+    }
 
-        return new PuzzleValidation(isValid, formatEquation(positions), result);
+    private ResponseStatusException tooLargeForInProcessSearch() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Espace de recherche trop grand pour une recherche en mémoire : " + space.size()
+                        + " arrangements (maximum " + maxSpace + ") ; lancer POST /api/solutions/distributed");
+    }
+
+    private static int[] unpack(byte[] digits, int offset, int[] target) {
+        for (int k = 0; k < target.length; k++) {
+            target[k] = digits[offset + k];
+        }
+        return target;
+    }
+
+    private static final Comparator<SolutionCandidate> LEXICOGRAPHIC = (left, right) -> {
+        for (int k = 0; k < left.positions().size(); k++) {
+            int order = Integer.compare(left.positions().get(k), right.positions().get(k));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    };
+
+    public static class SolverStatistics {
+        private final long nodesVisited;
+        private final long nodesPruned;
+        private final long solutionsFound;
+        private final long permutationsExplored;
+
+        public SolverStatistics(long nodesVisited, long nodesPruned, long solutionsFound, long permutationsExplored) {
+            this.nodesVisited = nodesVisited;
+            this.nodesPruned = nodesPruned;
+            this.solutionsFound = solutionsFound;
+            this.permutationsExplored = permutationsExplored;
+        }
+
+        // interior nodes included
+        public long nodesVisited() {
+            return nodesVisited;
+        }
+
+        // complete arrangements checked against the equation, i.e. the leaves among the visited nodes
+        public long permutationsExplored() {
+            return permutationsExplored;
+        }
+
+        public long nodesPruned() {
+            return nodesPruned;
+        }
+
+        public long solutionsFound() {
+            return solutionsFound;
+        }
+    }
+
+    public static class SolveOutcome {
+        private final List<SolutionCandidate> solutions;
+        private final SolverStatistics statistics;
+
+        public SolveOutcome(List<SolutionCandidate> solutions, SolverStatistics statistics) {
+            this.solutions = solutions;
+            this.statistics = statistics;
+        }
+
+        public List<SolutionCandidate> solutions() {
+            return solutions;
+        }
+
+        public SolverStatistics statistics() {
+            return statistics;
+        }
     }
 
     public List<SolutionCandidate> solve() {
-        List<SolutionCandidate> solutions = new ArrayList<>();
-        boolean[] used = new boolean[10];
-        int[] current = new int[9];
-        backtrack(0, used, current, solutions);
-        return solutions;
+        return solve(SolverMode.SEQUENTIAL);
+    }
+
+    public List<SolutionCandidate> solve(SolverMode mode) {
+        return solveWithStatistics(mode).solutions();
+    }
+
+    public SolveOutcome solveWithStatistics(SolverMode mode) {
+        return solveWithStatistics(mode, null);
+    }
+
+    public List<SolutionCandidate> solve(SolverMode mode, GenerationProgress progress) {
+        return solveWithStatistics(mode, progress).solutions();
+    }
+
+    public SolveOutcome solveWithStatistics(SolverMode mode, GenerationProgress progress) {
+        SolveOutcome outcome = memoized.get(mode);
+        if (outcome != null) {
+            if (progress != null) {
+                progress.throwIfCancelled();
+                progress.addExplored(outcome.statistics().permutationsExplored(), outcome.solutions().size());
+            }
+            return outcome;
+        }
+
+        if (!searchesInProcess()) {
+            throw tooLargeForInProcessSearch();
+        }
+        long start = System.nanoTime();
+        outcome = search(mode, progress);
+        metrics.recordSearch(mode, outcome.statistics(), System.nanoTime() - start);
+        memoized.putIfAbsent(mode, outcome);
+        return outcome;
+    }
+
+    SolveOutcome search(SolverMode mode, GenerationProgress progress) {
+        int slots = space.slots();
+        Search search = switch (mode) {
+            case PARALLEL -> ForkJoinPool.commonPool().invoke(new PrefixTask(0, 0, new int[slots], progress));
+            case BRANCH_AND_BOUND, SYMMETRY_REDUCED, MINIMAL_CHANGE -> {
+                if (!specialized && mode != SolverMode.BRANCH_AND_BOUND) {
+                    yield sequential(progress);
+                }
+                Search special = new Search(mode == SolverMode.BRANCH_AND_BOUND, mode == SolverMode.SYMMETRY_REDUCED, progress);
+                if (mode == SolverMode.MINIMAL_CHANGE) {
+                    special.permuteMinimalChange();
+                } else {
+                    special.backtrack(0, 0, new int[slots]);
+                }
+                special.solutions.sort(LEXICOGRAPHIC);
+                yield special;
+            }
+            case SEQUENTIAL -> sequential(progress);
+        };
+        search.report();
+        return search.toOutcome();
+    }
+
+    private Search sequential(GenerationProgress progress) {
+        Search sequential = new Search(false, false, progress);
+        sequential.backtrack(0, 0, new int[space.slots()]);
+        return sequential;
+    }
+
+    // walks the index when it has been built, otherwise the permutation space itself, so that a
+    // short-circuiting consumer such as findFirst stops the search early; a space too large to search
+    // in-process is only ever walked through its index
+    public Stream<SolutionCandidate> stream() {
+        SolutionSet indexed = solutions;
+        if (indexed == null && !searchesInProcess()) {
+            throw tooLargeForInProcessSearch();
+        }
+        Spliterator<SolutionCandidate> spliterator = indexed != null
+                ? new IndexSpliterator(indexed, 0, indexed.size())
+                : new RangeSpliterator(0, space.size());
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    public long count() {
+        return solutionSet().size();
+    }
+
+    public List<SolutionCandidate> findFirst(int limit) {
+        return stream().limit(limit).toList();
     }
 
-    private void backtrack(int depth, boolean[] used, int[] current, List<SolutionCandidate> solutions) {
-        if (depth == 9) {
-            List<Integer> positions = new ArrayList<>(9);
-            for (int value : current) {
-                positions.add(value);
+    public List<SolutionCandidate> sample(int size, RandomGenerator random) {
+        SolutionSet solutions = this.solutions;
+        if (solutions == null) {
+            if (!searchesInProcess()) {
+                throw tooLargeForInProcessSearch();
             }
-            PuzzleValidation validation = validate(positions);
+            return reservoirSample(size, random);
+        }
+        int total = solutions.size();
+        if (size >= total) {
+            return stream().toList();
+        }
+
+        // Floyd's algorithm picks distinct ordinals, resolved in one ascending pass over the index
+        BitSet chosen = new BitSet(total);
+        for (int j = total - size; j < total; j++) {
+            int ordinal = random.nextInt(j + 1);
+            chosen.set(chosen.get(ordinal) ? j : ordinal);
+        }
+
+        List<SolutionCandidate> sample = new ArrayList<>(size);
+        for (int ordinal = chosen.nextSetBit(0); ordinal >= 0; ordinal = chosen.nextSetBit(ordinal + 1)) {
+            sample.add(solutions.candidate(ordinal));
+        }
+        return sample;
+    }
+
+    // without an index the whole space is walked anyway, so the sample is drawn in that single pass
+    private List<SolutionCandidate> reservoirSample(int size, RandomGenerator random) {
+        List<SolutionCandidate> sample = new ArrayList<>(size);
+        long[] seen = {0};
+        stream().forEachOrdered(candidate -> {
+            long index = seen[0]++;
+            if (index < size) {
+                sample.add(candidate);
+            } else {
+                long slot = random.nextLong(index + 1);
+                if (slot < size) {
+                    sample.set((int) slot, candidate);
+                }
+            }
+        });
+        sample.sort(LEXICOGRAPHIC);
+        return sample;
+    }
+
+    private static final class IndexSpliterator implements Spliterator<SolutionCandidate> {
+        private final SolutionSet solutions;
+        private int origin;
+        private final int fence;
+
+        private IndexSpliterator(SolutionSet solutions, int origin, int fence) {
+            this.solutions = solutions;
+            this.origin = origin;
+            this.fence = fence;
+        }
 
-            if (validation.isValid()) {
-                solutions.add(new SolutionCandidate(positions, validation.equation(), validation.result()));
+        @Override
+        public boolean tryAdvance(Consumer<? super SolutionCandidate> action) {
+            if (origin >= fence) {
+                return false;
             }
-            return;
+            action.accept(solutions.candidate(origin++));
+            return true;
         }
 
-        for (int digit = 1; digit <= 9; digit++) {
-            if (!used[digit]) {
-                used[digit] = true;
-                current[depth] = digit;
-                backtrack(depth + 1, used, current, solutions);
-                used[digit] = false;
+        @Override
+        public Spliterator<SolutionCandidate> trySplit() {
+            int middle = (origin + fence) >>> 1;
+            if (middle <= origin) {
+                return null;
             }
+            Spliterator<SolutionCandidate> prefix = new IndexSpliterator(solutions, origin, middle);
+            origin = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
         }
     }
 
-    private double evaluate(List<Integer> positions) {
-        int a = positions.get(0);
-        int b = positions.get(1);
-        int c = positions.get(2);
-        int d = positions.get(3);
-        int e = positions.get(4);
-        int f = positions.get(5);
-        int g = positions.get(6);
-        int h = positions.get(7);
-        int i = positions.get(8);
+    // Lehmer ranks [origin, fence) in lexicographic order: each arrangement is stepped to from the
+    // previous one and checked by the compiled equation. Splits halve the rank range.
+    private final class RangeSpliterator implements Spliterator<SolutionCandidate> {
+        private static final long MIN_SPLIT = 1 << 12;
+
+        private long origin;
+        private final long fence;
+        private int[] digits;
 
-        double term1 = a;
-        double term2 = (13.0 * b) / c;
-        double term3 = d;
-        double term4 = 12.0 * e;
-        double term5 = f;
-        double term6 = 11.0;
-        double term7 = (g * h) / (double) i;
-        double term8 = 10.0;
+        private RangeSpliterator(long origin, long fence) {
+            this.origin = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super SolutionCandidate> action) {
+            while (origin < fence) {
+                if (digits == null) {
+                    digits = space.unrank(origin);
+                }
+                boolean hit = equation.isSolution(digits);
+                SolutionCandidate candidate = hit ? toCandidate(digits) : null;
+                origin++;
+                space.advance(digits);
+                if (hit) {
+                    action.accept(candidate);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<SolutionCandidate> trySplit() {
+            if (fence - origin < 2 * MIN_SPLIT) {
+                return null;
+            }
+            long middle = origin + (fence - origin) / 2;
+            Spliterator<SolutionCandidate> prefix = new RangeSpliterator(origin, middle);
+            origin = middle;
+            digits = null;
+            return prefix;
+        }
 
-        return term1 + term2 + term3 + term4 - term5 - term6 + term7 - term8;
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+        }
     }
 
-    private String formatEquation(List<Integer> positions) {
-        if (positions == null || positions.size() != 9) {
-            return "? + 13×? ÷ ? + ? + 12×? − ? − 11 + ?×? ÷ ? − 10 = 66";
+    private final class Search {
+        private static final double EPSILON = 1e-9;
+        private static final int REPORT_MASK = (1 << 12) - 1;
+
+        private final boolean bounded;
+        private final boolean canonical;
+        private final GenerationProgress progress;
+        private final List<SolutionCandidate> solutions = new ArrayList<>();
+        private long nodesVisited;
+        private long leavesVisited;
+        private long nodesPruned;
+        private long reportedLeaves;
+        private long reportedSolutions;
+        // scratch space of the interval bound
+        private final double[] slotLow;
+        private final double[] slotHigh;
+        private final double[] nodeLow;
+        private final double[] nodeHigh;
+
+        private Search(boolean bounded, boolean canonical, GenerationProgress progress) {
+            this.bounded = bounded;
+            this.canonical = canonical;
+            this.progress = progress;
+            this.slotLow = bounded && !specialized ? new double[space.slots()] : null;
+            this.slotHigh = bounded && !specialized ? new double[space.slots()] : null;
+            this.nodeLow = bounded && !specialized ? new double[bounds.size()] : null;
+            this.nodeHigh = bounded && !specialized ? new double[bounds.size()] : null;
+        }
+
+        private void backtrack(int depth, int used, int[] current) {
+            visit();
+            if (depth == current.length) {
+                leavesVisited++;
+                if (equation.isSolution(current)) {
+                    if (canonical) {
+                        addSymmetricSiblings(current);
+                    } else {
+                        solutions.add(toCandidate(current));
+                    }
+                }
+                return;
+            }
+
+            if (bounded && cannotReachTarget(depth, used, current)) {
+                nodesPruned++;
+                return;
+            }
+
+            int slot = bounded ? boundOrder[depth] : depth;
+            int first = canonical ? firstCanonicalDigit(slot, current) : 0;
+            for (int digit : digitValues) {
+                int bit = 1 << digit;
+                if (digit >= first && (used & bit) == 0) {
+                    current[slot] = digit;
+                    backtrack(depth + 1, used | bit, current);
+                }
+            }
         }
 
-        return String.format("%d + 13×%d÷%d + %d + 12×%d − %d − 11 + %d×%d÷%d − 10 = 66",
-                positions.get(0), positions.get(1), positions.get(2), positions.get(3), positions.get(4),
-                positions.get(5), positions.get(6), positions.get(7), positions.get(8));
+        // a and d are interchangeable additive terms and g, h commute in gh/i: only a < d and
+        // g < h are explored, and every hit stands for the four permutations of its orbit.
+        private static int firstCanonicalDigit(int slot, int[] current) {
+            return switch (slot) {
+                case 3 -> current[0] + 1;
+                case 7 -> current[6] + 1;
+                default -> 0;
+            };
+        }
+
+        private void addSymmetricSiblings(int[] current) {
+            int[] sibling = current.clone();
+            for (int swapAD = 0; swapAD < 2; swapAD++) {
+                for (int swapGH = 0; swapGH < 2; swapGH++) {
+                    solutions.add(toCandidate(sibling));
+                    swap(sibling, 6, 7);
+                }
+                swap(sibling, 0, 3);
+            }
+        }
+
+        private static void swap(int[] p, int x, int y) {
+            int value = p[x];
+            p[x] = p[y];
+            p[y] = value;
+        }
+
+        // Heap's algorithm: every step swaps two slots, so the linear part a + d + 12e - f
+        // and the product gh are patched from the previous permutation instead of recomputed.
+        private void permuteMinimalChange() {
+            int[] p = digitValues.clone();
+            int[] counters = new int[p.length];
+            long linear = p[0] + p[3] + 12 * p[4] - p[5] - 11 - 10 - definition.target();
+            int gh = p[6] * p[7];
+
+            visit();
+            checkLeaf(p, linear, gh);
+
+            int k = 1;
+            while (k < p.length) {
+                if (counters[k] < k) {
+                    int x = (k & 1) == 0 ? 0 : counters[k];
+                    int vx = p[x];
+                    int vk = p[k];
+                    p[x] = vk;
+                    p[k] = vx;
+                    linear += (LINEAR_COEFFICIENTS[x] - LINEAR_COEFFICIENTS[k]) * (vk - vx);
+                    if (x >= 6 || k == 6 || k == 7) {
+                        gh = p[6] * p[7];
+                    }
+
+                    visit();
+                    checkLeaf(p, linear, gh);
+
+                    counters[k]++;
+                    k = 1;
+                } else {
+                    counters[k] = 0;
+                    k++;
+                }
+            }
+        }
+
+        private void checkLeaf(int[] p, long linear, int gh) {
+            leavesVisited++;
+            int c = p[2];
+            int i = p[8];
+            if (linear * c * i + 13 * p[1] * i + gh * c == 0) {
+                solutions.add(toCandidate(p));
+            }
+        }
+
+        // Each unassigned slot independently takes the smallest or largest remaining digit, which
+        // over-approximates the reachable range of the expression.
+        private boolean cannotReachTarget(int depth, int used, int[] p) {
+            int remaining = ~used & space.digitMask();
+            int low = Integer.numberOfTrailingZeros(remaining);
+            int high = 31 - Integer.numberOfLeadingZeros(remaining);
+            int assigned = boundOrderMasks[depth];
+            if (specialized) {
+                return cannotReachTargetByHand(assigned, low, high, p);
+            }
+
+            for (int slot = 0; slot < p.length; slot++) {
+                boolean fixed = (assigned & (1 << slot)) != 0;
+                slotLow[slot] = fixed ? p[slot] : low;
+                slotHigh[slot] = fixed ? p[slot] : high;
+            }
+            return !bounds.canReach(definition.target(), slotLow, slotHigh, nodeLow, nodeHigh);
+        }
+
+        // the same bound written out for a + d + 12e - f - 21 - target + 13b/c + gh/i
+        private boolean cannotReachTargetByHand(int assigned, int low, int high, int[] p) {
+            int aMin = bound(assigned, p, 0, low), aMax = bound(assigned, p, 0, high);
+            int bMin = bound(assigned, p, 1, low), bMax = bound(assigned, p, 1, high);
+            int cMin = bound(assigned, p, 2, low), cMax = bound(assigned, p, 2, high);
+            int dMin = bound(assigned, p, 3, low), dMax = bound(assigned, p, 3, high);
+            int eMin = bound(assigned, p, 4, low), eMax = bound(assigned, p, 4, high);
+            int fMin = bound(assigned, p, 5, low), fMax = bound(assigned, p, 5, high);
+            int gMin = bound(assigned, p, 6, low), gMax = bound(assigned, p, 6, high);
+            int hMin = bound(assigned, p, 7, low), hMax = bound(assigned, p, 7, high);
+            int iMin = bound(assigned, p, 8, low), iMax = bound(assigned, p, 8, high);
+
+            double linearOffset = -11 - 10 - (double) definition.target();
+            double min = aMin + dMin + 12 * eMin - fMax + linearOffset
+                    + 13.0 * bMin / cMax + (double) (gMin * hMin) / iMax;
+            double max = aMax + dMax + 12 * eMax - fMin + linearOffset
+                    + 13.0 * bMax / cMin + (double) (gMax * hMax) / iMin;
+            return min > EPSILON || max < -EPSILON;
+        }
+
+        private static int bound(int assigned, int[] p, int slot, int unassignedValue) {
+            return (assigned & (1 << slot)) != 0 ? p[slot] : unassignedValue;
+        }
+
+        // progress is published in blocks of 4096 nodes, which is also when cancellation is observed
+        private void visit() {
+            if ((++nodesVisited & REPORT_MASK) == 0 && progress != null) {
+                report();
+                progress.throwIfCancelled();
+            }
+        }
+
+        private void report() {
+            if (progress != null) {
+                progress.addExplored(leavesVisited - reportedLeaves, solutions.size() - reportedSolutions);
+                reportedLeaves = leavesVisited;
+                reportedSolutions = solutions.size();
+            }
+        }
+
+        private void merge(Search other) {
+            solutions.addAll(other.solutions);
+            nodesVisited += other.nodesVisited;
+            leavesVisited += other.leavesVisited;
+            nodesPruned += other.nodesPruned;
+            reportedLeaves += other.reportedLeaves;
+            reportedSolutions += other.reportedSolutions;
+        }
+
+        private SolveOutcome toOutcome() {
+            return new SolveOutcome(Collections.unmodifiableList(solutions),
+                    new SolverStatistics(nodesVisited, nodesPruned, solutions.size(), leavesVisited));
+        }
+    }
+
+    private final class PrefixTask extends RecursiveTask<Search> {
+        private final int depth;
+        private final int used;
+        private final int[] prefix;
+        private final GenerationProgress progress;
+
+        private PrefixTask(int depth, int used, int[] prefix, GenerationProgress progress) {
+            this.depth = depth;
+            this.used = used;
+            this.prefix = prefix;
+            this.progress = progress;
+        }
+
+        @Override
+        protected Search compute() {
+            Search search = new Search(false, false, progress);
+            if (depth == Math.min(SPLIT_DEPTH, prefix.length)) {
+                search.backtrack(depth, used, prefix);
+                search.report();
+                return search;
+            }
+
+            search.visit();
+            List<PrefixTask> subtasks = new ArrayList<>();
+            for (int digit : digitValues) {
+                int bit = 1 << digit;
+                if ((used & bit) == 0) {
+                    int[] next = prefix.clone();
+                    next[depth] = digit;
+                    subtasks.add(new PrefixTask(depth + 1, used | bit, next, progress));
+                }
+            }
+            invokeAll(subtasks);
+
+            // joining in digit order keeps the lexicographic order of the sequential search
+            for (PrefixTask subtask : subtasks) {
+                search.merge(subtask.join());
+            }
+            return search;
+        }
+    }
+
+    private SolutionCandidate toCandidate(int[] current) {
+        return new SolutionCandidate(PackedDigitList.of(current), equation.format(current), definition.target());
     }
 }
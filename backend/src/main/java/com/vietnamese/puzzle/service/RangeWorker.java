@@ -0,0 +1,130 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Worker process started by DistributedSolver. It checks every arrangement of a Lehmer-rank range
+// against the compiled equation, one range at a time, and talks to the coordinator in text lines:
+//   stdin:  RANGE <id> <from> <to> | LIMIT <id> <to>
+//   stdout: READY | HIT <id> <rank> | PROGRESS <id> <position> | LIMITED <id> <to> | DONE <id>
+// LIMIT lowers the end of the running range so an idle worker can take over its tail; LIMITED gives
+// the end actually kept (never inside a block already started), or -1 when the range is no longer
+// running. The process exits at the end of its input.
+public final class RangeWorker {
+
+    static final int BLOCK = 1 << 14;
+
+    private static final long[] END = new long[0];
+
+    private final CompiledEquation equation;
+    private final PermutationSpace space;
+    private final PrintStream out;
+    private final Object lock = new Object();
+    private long currentId = -1;
+    private long limit;
+    private long committed;
+
+    RangeWorker(PuzzleDefinition definition, PrintStream out) {
+        this.equation = EquationCompiler.compile(definition);
+        this.space = PermutationSpace.of(definition);
+        this.out = out;
+    }
+
+    // arguments: expression, comma-separated digits, slot count, target
+    public static void main(String[] args) throws Exception {
+        PuzzleDefinition definition = new PuzzleDefinition(args[0],
+                Arrays.stream(args[1].split(",")).map(String::trim).map(Integer::valueOf).toList(),
+                Integer.parseInt(args[2]), Long.parseLong(args[3]));
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)),
+                false, StandardCharsets.US_ASCII);
+        new RangeWorker(definition, out).serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII)));
+    }
+
+    void serve(BufferedReader in) throws IOException, InterruptedException {
+        BlockingQueue<long[]> ranges = new LinkedBlockingQueue<>();
+        Thread compute = new Thread(() -> {
+            try {
+                for (long[] range = ranges.take(); range != END; range = ranges.take()) {
+                    run(range[0], range[1], range[2]);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, "range-worker");
+        compute.start();
+
+        send("READY");
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            String[] message = line.trim().split(" ");
+            switch (message[0]) {
+                case "RANGE" -> ranges.add(new long[]{
+                        Long.parseLong(message[1]), Long.parseLong(message[2]), Long.parseLong(message[3])});
+                case "LIMIT" -> limit(Long.parseLong(message[1]), Long.parseLong(message[2]));
+                default -> throw new IllegalArgumentException("Commande inconnue : " + line);
+            }
+        }
+        ranges.add(END);
+        compute.join();
+    }
+
+    private void run(long id, long from, long to) {
+        synchronized (lock) {
+            currentId = id;
+            limit = to;
+            committed = from;
+        }
+
+        int[] digits = space.unrank(from);
+        long position = from;
+        while (true) {
+            long blockEnd;
+            synchronized (lock) {
+                blockEnd = Math.min(position + BLOCK, limit);
+                committed = Math.max(committed, blockEnd);
+            }
+            if (position >= blockEnd) {
+                break;
+            }
+            for (; position < blockEnd; position++) {
+                if (equation.isSolution(digits)) {
+                    out.println("HIT " + id + " " + position);
+                }
+                space.advance(digits);
+            }
+            send("PROGRESS " + id + " " + position);
+        }
+
+        // under the lock so that a LIMITED reply can never follow the DONE of its range
+        synchronized (lock) {
+            currentId = -1;
+            send("DONE " + id);
+        }
+    }
+
+    private void limit(long id, long to) {
+        synchronized (lock) {
+            if (id != currentId) {
+                send("LIMITED " + id + " -1");
+                return;
+            }
+            limit = Math.min(limit, Math.max(to, committed));
+            send("LIMITED " + id + " " + limit);
+        }
+    }
+
+    private void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+}
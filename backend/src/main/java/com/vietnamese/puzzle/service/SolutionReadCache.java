@@ -0,0 +1,73 @@
+package com.vietnamese.puzzle.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class SolutionReadCache implements MeterBinder {
+
+    // entries are keyed by the data version they were loaded under, so a load racing with an
+    // invalidation can only land under a version nobody reads anymore
+    private record VersionedKey(long version, Object key) {
+    }
+
+    private final Cache<VersionedKey, Object> cache;
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public SolutionReadCache(@Value("${puzzle.cache.max-entries:256}") long maxEntries,
+                             @Value("${puzzle.cache.ttl:PT60S}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> loader) {
+        return (T) cache.get(new VersionedKey(version.get(), key), ignored -> loader.get());
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow();
+                }
+            });
+        } else {
+            invalidateNow();
+        }
+    }
+
+    private void invalidateNow() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "solutionReads");
+    }
+}
@@ -1,80 +1,387 @@
 package com.vietnamese.puzzle.service;
 
+import com.vietnamese.puzzle.dto.SolutionCursor;
+import com.vietnamese.puzzle.dto.SolutionQuery;
+import com.vietnamese.puzzle.model.PackedDigitList;
 import com.vietnamese.puzzle.model.PuzzleSolution;
 import com.vietnamese.puzzle.model.SolutionStatus;
 import com.vietnamese.puzzle.repository.PuzzleSolutionRepository;
+import com.vietnamese.puzzle.repository.PuzzleSolutionSpecifications;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
 @Service
 public class SolutionService {
 
     public static class GenerationResult {
         private final List<PuzzleSolution> solutions;
+        private final int count;
+        private final int inserted;
+        private final int alreadyPresent;
         private final long computationTimeMs;
+        private final long solveTimeMs;
+        private final long persistenceTimeMs;
 
         public GenerationResult(List<PuzzleSolution> solutions, long computationTimeMs) {
+            this(solutions, solutions.size(), computationTimeMs);
+        }
+
+        public GenerationResult(List<PuzzleSolution> solutions, int count, long computationTimeMs) {
+            this(solutions, count, count, 0, computationTimeMs, computationTimeMs, 0);
+        }
+
+        public GenerationResult(List<PuzzleSolution> solutions, int count, int inserted, int alreadyPresent,
+                                long computationTimeMs, long solveTimeMs, long persistenceTimeMs) {
             this.solutions = solutions;
+            this.count = count;
+            this.inserted = inserted;
+            this.alreadyPresent = alreadyPresent;
             this.computationTimeMs = computationTimeMs;
+            this.solveTimeMs = solveTimeMs;
+            this.persistenceTimeMs = persistenceTimeMs;
         }
 
         public List<PuzzleSolution> getSolutions() {
             return solutions;
         }
 
+        public int getCount() {
+            return count;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getAlreadyPresent() {
+            return alreadyPresent;
+        }
+
         public long getComputationTimeMs() {
             return computationTimeMs;
         }
+
+        public long getSolveTimeMs() {
+            return solveTimeMs;
+        }
+
+        public long getPersistenceTimeMs() {
+            return persistenceTimeMs;
+        }
+    }
+
+    public static class SolutionPage {
+        private final List<PuzzleSolution> solutions;
+        private final SolutionCursor nextCursor;
+
+        public SolutionPage(List<PuzzleSolution> solutions, SolutionCursor nextCursor) {
+            this.solutions = solutions;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<PuzzleSolution> getSolutions() {
+            return solutions;
+        }
+
+        public SolutionCursor getNextCursor() {
+            return nextCursor;
+        }
     }
 
+    public static class CompletionPage {
+        private final int count;
+        private final List<PuzzleSolverService.SolutionCandidate> completions;
+
+        public CompletionPage(int count, List<PuzzleSolverService.SolutionCandidate> completions) {
+            this.count = count;
+            this.completions = completions;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public List<PuzzleSolverService.SolutionCandidate> getCompletions() {
+            return completions;
+        }
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private record FilterKey(String filter) {
+    }
+
+    private record PageKey(SolutionQuery query, SolutionCursor cursor, int pageSize) {
+    }
+
+    private record Upserted(List<PuzzleSolution> rows, int inserted) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(SolutionService.class);
+    private static final int UPSERT_ATTEMPTS = 3;
+    private static final int JOB_CHUNK_SIZE = 50;
+
     private final PuzzleSolutionRepository repository;
     private final PuzzleSolverService solverService;
+    private final SolutionReadCache readCache;
+    private final PuzzleMetrics metrics;
+    private final DistributedSolver distributedSolver;
+    private final SingleFlight<SolverMode, GenerationResult> generations = new SingleFlight<>();
 
-    public SolutionService(PuzzleSolutionRepository repository, PuzzleSolverService solverService) {
+    public SolutionService(PuzzleSolutionRepository repository, PuzzleSolverService solverService,
+                           SolutionReadCache readCache, PuzzleMetrics metrics, DistributedSolver distributedSolver) {
         this.repository = repository;
         this.solverService = solverService;
+        this.readCache = readCache;
+        this.metrics = metrics;
+        this.distributedSolver = distributedSolver;
+    }
+
+    // Built before the first request is served, so that no request thread waits for the search. A space
+    // too large to search in-process is only indexed from the checkpoint of a finished distributed run;
+    // until then the index-backed endpoints answer 503.
+    @PostConstruct
+    void loadIndex() {
+        if (solverService.searchesInProcess()) {
+            log.info("index count={}", solverService.solutionSet().size());
+            return;
+        }
+        distributedSolver.loadCheckpoint(solverService.definition()).ifPresentOrElse(
+                solutions -> log.info("index count={} loaded from checkpoint", solverService.adopt(solutions).size()),
+                () -> log.warn("index unavailable until a distributed run completes, space={}", solverService.space().size()));
+    }
+
+    public long getDataVersion() {
+        return readCache.version();
+    }
+
+    // slots and digit set of the configured definition, which REST payloads are checked against
+    public PermutationSpace space() {
+        return solverService.space();
     }
 
     public List<PuzzleSolution> getSolutions(String filter) {
         Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
 
         if (filter != null && !filter.isBlank()) {
-            return repository.findByEquationContainingIgnoreCase(filter, sort);
+            return readCache.get(new FilterKey(filter), () -> repository.findByEquationContainingIgnoreCase(filter, sort));
+        }
+
+        return readCache.get(new FilterKey(null), () -> repository.findAll(sort));
+    }
+
+    public List<PuzzleSolution> searchSolutions(SolutionQuery query) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
+        return readCache.get(query, () -> repository.findAll(PuzzleSolutionSpecifications.matching(query), sort));
+    }
+
+    public SolutionPage getSolutionPage(SolutionQuery query, SolutionCursor cursor, int pageSize) {
+        return readCache.get(new PageKey(query, cursor, pageSize), () -> loadSolutionPage(query, cursor, pageSize));
+    }
+
+    private SolutionPage loadSolutionPage(SolutionQuery query, SolutionCursor cursor, int pageSize) {
+        int limit = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+        Specification<PuzzleSolution> specification = PuzzleSolutionSpecifications.matching(query);
+        if (cursor != null) {
+            specification = specification.and(PuzzleSolutionSpecifications.after(cursor));
         }
 
-        return repository.findAll(sort);
+        List<PuzzleSolution> rows = repository.findBy(specification, fluent -> fluent.sortBy(sort).limit(limit + 1).all());
+        if (rows.size() <= limit) {
+            return new SolutionPage(rows, null);
+        }
+        List<PuzzleSolution> page = rows.subList(0, limit);
+        return new SolutionPage(page, SolutionCursor.after(page.getLast()));
     }
 
     public PuzzleSolution getSolution(Long id) {
+        return readCache.get(id, () -> loadSolution(id));
+    }
+
+    private PuzzleSolution loadSolution(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Solution non trouvée"));
     }
 
-    public GenerationResult generateAndSaveAll() {
+    public GenerationResult generateAndSaveAll(SolverMode mode) {
+        return generations.execute(mode, () -> {
+            long start = System.nanoTime();
+            return save(solverService.solve(mode), start);
+        });
+    }
+
+    public GenerationResult generateAndSaveAll(SolverMode mode, GenerationProgress progress) {
+        long start = System.nanoTime();
+        List<PuzzleSolverService.SolutionCandidate> solved = solverService.solve(mode, progress);
+        return saveInChunks(solved.size(), solved::get, progress, start);
+    }
+
+    // the search runs in worker processes; the merged solution set also becomes the solver's index, and
+    // candidates are decoded from it one chunk at a time
+    public GenerationResult generateAndSaveDistributed(int workers, GenerationProgress progress) {
+        long start = System.nanoTime();
+        DistributedSolver.DistributedOutcome outcome = distributedSolver.solve(solverService.definition(), workers, progress);
+        SolutionSet solutions = solverService.adopt(outcome.getSolutions());
+        return saveInChunks(solutions.size(), solutions::candidate, progress, start);
+    }
+
+    // jobs report counts only: neither the candidates nor the saved rows outlive their chunk
+    private GenerationResult saveInChunks(int count, IntFunction<PuzzleSolverService.SolutionCandidate> candidates,
+                                          GenerationProgress progress, long start) {
+        long persistStart = System.nanoTime();
+        int inserted = 0;
+        for (int from = 0; from < count; from += JOB_CHUNK_SIZE) {
+            progress.throwIfCancelled();
+            Upserted upserted = upsert(IntStream.range(from, Math.min(from + JOB_CHUNK_SIZE, count)).mapToObj(candidates).toList());
+            inserted += upserted.inserted();
+            progress.addPersisted(upserted.rows().size());
+        }
+        long end = System.nanoTime();
+
+        return logged(new GenerationResult(List.of(), count, inserted, count - inserted,
+                toMillis(end - start), toMillis(persistStart - start), toMillis(end - persistStart)));
+    }
+
+    public GenerationResult generateAndSaveFirst(int limit) {
         long start = System.nanoTime();
+        return save(solverService.findFirst(limit), start);
+    }
+
+    public GenerationResult generateAndSaveSample(int size) {
+        long start = System.nanoTime();
+        return save(solverService.sample(size, ThreadLocalRandom.current()), start);
+    }
 
-        List<PuzzleSolverService.SolutionCandidate> solved = solverService.solve();
+    public GenerationResult generateAndSaveInChunks(int chunkSize, Consumer<List<PuzzleSolution>> onChunkSaved) {
+        long start = System.nanoTime();
+        List<PuzzleSolverService.SolutionCandidate> chunk = new ArrayList<>(chunkSize);
+        long[] totals = {0, 0, 0};
+
+        solverService.stream().forEachOrdered(candidate -> {
+            chunk.add(candidate);
+            if (chunk.size() == chunkSize) {
+                saveChunk(chunk, onChunkSaved, totals);
+            }
+        });
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, onChunkSaved, totals);
+        }
 
-        List<PuzzleSolution> entities = solved.stream()
+        long totalNanos = System.nanoTime() - start;
+        return logged(new GenerationResult(List.of(), (int) totals[0], (int) totals[1], (int) (totals[0] - totals[1]),
+                toMillis(totalNanos), toMillis(totalNanos - totals[2]), toMillis(totals[2])));
+    }
+
+    private void saveChunk(List<PuzzleSolverService.SolutionCandidate> chunk, Consumer<List<PuzzleSolution>> onChunkSaved,
+                           long[] totals) {
+        long persistStart = System.nanoTime();
+        Upserted upserted = upsert(chunk);
+        totals[2] += System.nanoTime() - persistStart;
+        totals[0] += upserted.rows().size();
+        totals[1] += upserted.inserted();
+        chunk.clear();
+        onChunkSaved.accept(upserted.rows());
+    }
+
+    public long countSolutions() {
+        return solverService.count();
+    }
+
+    private GenerationResult save(List<PuzzleSolverService.SolutionCandidate> solved, long start) {
+        long persistStart = System.nanoTime();
+        Upserted upserted = upsert(solved);
+        long end = System.nanoTime();
+
+        int count = upserted.rows().size();
+        return logged(new GenerationResult(upserted.rows(), count, upserted.inserted(), count - upserted.inserted(),
+                toMillis(end - start), toMillis(persistStart - start), toMillis(end - persistStart)));
+    }
+
+    // Rows are keyed by their packed permutation: only the missing ones are inserted, and a
+    // concurrent insert of the same permutation is resolved by re-reading and retrying.
+    private Upserted upsert(List<PuzzleSolverService.SolutionCandidate> candidates) {
+        long start = System.nanoTime();
+        List<Long> keys = candidates.stream()
+                .map(candidate -> PackedDigitList.pack(candidate.positions()))
+                .toList();
+
+        for (int attempt = 1; ; attempt++) {
+            Map<Long, PuzzleSolution> rows = new HashMap<>();
+            for (PuzzleSolution existing : repository.findAllByPackedSolutionIn(keys)) {
+                rows.put(existing.getPackedSolution(), existing);
+            }
+
+            List<PuzzleSolverService.SolutionCandidate> missing = new ArrayList<>();
+            for (int k = 0; k < candidates.size(); k++) {
+                if (!rows.containsKey(keys.get(k))) {
+                    missing.add(candidates.get(k));
+                }
+            }
+
+            try {
+                List<PuzzleSolution> inserted = missing.isEmpty() ? List.of() : repository.saveAll(toEntities(missing));
+                if (!inserted.isEmpty()) {
+                    readCache.invalidate();
+                }
+                for (PuzzleSolution row : inserted) {
+                    rows.put(row.getPackedSolution(), row);
+                }
+                List<PuzzleSolution> ordered = keys.stream().map(rows::get).toList();
+                metrics.recordPersistence(inserted.size(), ordered.size() - inserted.size(), System.nanoTime() - start);
+                return new Upserted(ordered, inserted.size());
+            } catch (DataIntegrityViolationException ex) {
+                if (attempt == UPSERT_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private static GenerationResult logged(GenerationResult result) {
+        log.info("generation count={} inserted={} alreadyPresent={} solveMs={} persistMs={} totalMs={}",
+                result.getCount(), result.getInserted(), result.getAlreadyPresent(),
+                result.getSolveTimeMs(), result.getPersistenceTimeMs(), result.getComputationTimeMs());
+        return result;
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static List<PuzzleSolution> toEntities(List<PuzzleSolverService.SolutionCandidate> candidates) {
+        return candidates.stream()
                 .map(candidate -> new PuzzleSolution(
                         candidate.positions(),
                         candidate.equation(),
                         candidate.result(),
                         SolutionStatus.CORRECT))
                 .toList();
-
-        List<PuzzleSolution> saved = repository.saveAll(entities);
-
-        long durationMs = (System.nanoTime() - start) / 1_000_000;
-        return new GenerationResult(saved, durationMs);
     }
 
     public PuzzleSolution updateSolution(Long id, List<Integer> positions) {
-        PuzzleSolution solution = getSolution(id);
+        PuzzleSolution solution = loadSolution(id);
 
         PuzzleSolverService.PuzzleValidation validation = solverService.validate(positions);
 
@@ -83,21 +390,69 @@ public class SolutionService {
         solution.setResult(validation.result());
         solution.setStatus(validation.isValid() ? SolutionStatus.CORRECT : SolutionStatus.INCORRECT);
 
-        return repository.save(solution);
+        try {
+            return repository.save(solution);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cette solution existe déjà");
+        } finally {
+            readCache.invalidate();
+        }
+    }
+
+    @Transactional
+    public int deleteAll() {
+        readCache.invalidate();
+        return repository.deleteMatching(null, null);
     }
 
-    public void deleteAll() {
-        repository.deleteAll();
+    @Transactional
+    public int deleteMatching(SolutionStatus status, String filter) {
+        readCache.invalidate();
+        // escaped like the GET filter, so that % and _ delete exactly the rows a listing shows
+        return repository.deleteMatching(status, filter == null || filter.isBlank() ? null : EscapeCharacter.DEFAULT.escape(filter));
     }
 
+    @Transactional
     public void deleteById(Long id) {
-        if (!repository.existsById(id)) {
+        if (repository.deleteSingleById(id) == 0) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Solution non trouvée");
         }
-        repository.deleteById(id);
+        readCache.invalidate();
     }
 
     public PuzzleSolverService.PuzzleValidation validate(List<Integer> positions) {
-        return solverService.validate(positions);
+        long start = System.nanoTime();
+        PuzzleSolverService.PuzzleValidation validation = solverService.validate(positions);
+        metrics.recordValidation(System.nanoTime() - start);
+        return validation;
+    }
+
+    // answered from the solver's in-memory solution set, independently of what has been persisted
+    public CompletionPage complete(List<Integer> partial, int offset, int pageSize) {
+        SolutionSet solutions = solverService.solutionSet();
+        BitSet matches;
+        try {
+            matches = solutions.matching(partial);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+
+        int limit = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        List<PuzzleSolverService.SolutionCandidate> completions = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        int ordinal = matches.nextSetBit(0);
+        for (int skipped = 0; ordinal >= 0 && skipped < offset; skipped++) {
+            ordinal = matches.nextSetBit(ordinal + 1);
+        }
+        for (; ordinal >= 0 && completions.size() < limit; ordinal = matches.nextSetBit(ordinal + 1)) {
+            completions.add(solutions.candidate(ordinal));
+        }
+        return new CompletionPage(matches.cardinality(), completions);
+    }
+
+    public PuzzleSolverService.BatchValidation validateBatch(byte[] digits) {
+        long start = System.nanoTime();
+        PuzzleSolverService.BatchValidation batch = solverService.validateBatch(digits);
+        metrics.recordBatchValidation(System.nanoTime() - start);
+        return batch;
     }
 }
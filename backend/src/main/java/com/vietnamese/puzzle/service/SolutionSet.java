@@ -0,0 +1,106 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PackedDigitList;
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Every solution of one definition, held as the ascending Lehmer ranks of its arrangements:
+// 8 bytes per solution, ordinal order is lexicographic order. One bitmap per (slot, digit) over the
+// ordinals answers partial assignments with a handful of word-wise ANDs instead of a new search.
+public final class SolutionSet {
+
+    private static final int DIGIT_RANGE = 32;
+
+    private final CompiledEquation equation;
+    private final PermutationSpace space;
+    private final long[] ranks;
+    private final BitSet[] bySlotAndDigit;
+
+    public SolutionSet(CompiledEquation equation, long[] ranks) {
+        this.equation = equation;
+        this.space = PermutationSpace.of(equation.definition());
+        this.ranks = ranks;
+        this.bySlotAndDigit = new BitSet[space.slots() * DIGIT_RANGE];
+        for (int ordinal = 0; ordinal < ranks.length; ordinal++) {
+            int[] digits = space.unrank(ranks[ordinal]);
+            for (int slot = 0; slot < digits.length; slot++) {
+                int column = slot * DIGIT_RANGE + digits[slot];
+                if (bySlotAndDigit[column] == null) {
+                    bySlotAndDigit[column] = new BitSet(ranks.length);
+                }
+                bySlotAndDigit[column].set(ordinal);
+            }
+        }
+    }
+
+    public PuzzleDefinition definition() {
+        return equation.definition();
+    }
+
+    public CompiledEquation equation() {
+        return equation;
+    }
+
+    public PermutationSpace space() {
+        return space;
+    }
+
+    public int size() {
+        return ranks.length;
+    }
+
+    public long rank(int ordinal) {
+        return ranks[ordinal];
+    }
+
+    public boolean contains(long rank) {
+        return Arrays.binarySearch(ranks, rank) >= 0;
+    }
+
+    // ordinals of the solutions agreeing with every non-null entry of the partial assignment
+    public BitSet matching(List<Integer> partial) {
+        if (partial == null || partial.size() != space.slots()) {
+            throw new IllegalArgumentException("La grille partielle doit contenir " + space.slots() + " positions");
+        }
+
+        BitSet matches = new BitSet(ranks.length);
+        matches.set(0, ranks.length);
+        for (int slot = 0; slot < partial.size(); slot++) {
+            Integer digit = partial.get(slot);
+            if (digit == null) {
+                continue;
+            }
+            BitSet column = digit < 0 || digit >= DIGIT_RANGE ? null : bySlotAndDigit[slot * DIGIT_RANGE + digit];
+            if (column == null) {
+                matches.clear();
+                return matches;
+            }
+            matches.and(column);
+        }
+        return matches;
+    }
+
+    public int[] digits(int ordinal) {
+        return space.unrank(ranks[ordinal]);
+    }
+
+    public PuzzleSolverService.SolutionCandidate candidate(int ordinal) {
+        int[] digits = digits(ordinal);
+        return new PuzzleSolverService.SolutionCandidate(
+                PackedDigitList.of(digits), equation.format(digits), definition().target());
+    }
+
+    // retained heap, roughly: the rank array, the bitmaps and the object headers around them
+    public long weightInBytes() {
+        long bytes = 8L * ranks.length + 128;
+        for (BitSet column : bySlotAndDigit) {
+            if (column != null) {
+                bytes += column.size() / 8 + 32;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+package com.vietnamese.puzzle.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Solution sets per definition, keyed by fingerprint and bounded by their weight in bytes (W-TinyLFU).
+// The async cache keeps one in-flight future per key: concurrent requests for a definition that is
+// being solved wait for that search instead of starting their own, and a failed search is not cached.
+// Searches run on a small pool of their own so that they neither starve the common fork-join pool
+// nor multiply with the number of distinct definitions requested at once.
+@Component
+public class SolutionSetCache implements MeterBinder {
+
+    private final AsyncCache<String, SolutionSet> cache;
+    private final ExecutorService executor;
+    private final PuzzleSolverService solverService;
+    private final long maxSpace;
+
+    public SolutionSetCache(PuzzleSolverService solverService,
+                            @Value("${puzzle.definitions.cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${puzzle.definitions.max-space:20000000}") long maxSpace,
+                            @Value("${puzzle.definitions.solver-threads:2}") int solverThreads) {
+        this.solverService = solverService;
+        this.maxSpace = maxSpace;
+        this.executor = Executors.newFixedThreadPool(solverThreads,
+                Thread.ofPlatform().name("solution-set-", 0).daemon().factory());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, SolutionSet>weigher((fingerprint, solutions) -> (int) Math.min(Integer.MAX_VALUE, solutions.weightInBytes()))
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public SolutionSet get(PuzzleDefinition definition) {
+        // the configured definition is indexed by the solver itself and never evicted
+        if (definition.fingerprint().equals(solverService.definition().fingerprint())) {
+            return solverService.solutionSet();
+        }
+
+        // rejected before the cache, so that an invalid definition neither occupies the solver pool nor
+        // reaches the asynchronous loader
+        EquationCompiler.validate(definition);
+        long size = PermutationSpace.of(definition).size();
+        if (size > maxSpace) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Espace de recherche trop grand : " + size + " arrangements (maximum " + maxSpace + ")");
+        }
+
+        // unregistered metrics: searches for ad-hoc definitions must not count as the configured puzzle's
+        try {
+            return cache.get(definition.fingerprint(),
+                    (fingerprint, pool) -> CompletableFuture.supplyAsync(
+                            () -> new PuzzleSolverService(definition).solutionSet(), pool))
+                    .join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "solutionSets");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,22 @@
+package com.vietnamese.puzzle.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+public enum SolverMode {
+    SEQUENTIAL,
+    PARALLEL,
+    BRANCH_AND_BOUND,
+    MINIMAL_CHANGE,
+    SYMMETRY_REDUCED;
+
+    public static SolverMode fromParameter(String value) {
+        try {
+            return SolverMode.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mode de résolution inconnu : " + value);
+        }
+    }
+}
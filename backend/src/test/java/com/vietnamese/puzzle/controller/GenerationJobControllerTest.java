@@ -0,0 +1,62 @@
+package com.vietnamese.puzzle.controller;
+
+import com.vietnamese.puzzle.service.GenerationJobService;
+import com.vietnamese.puzzle.service.SolverMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(GenerationJobController.class)
+class GenerationJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private GenerationJobService jobService;
+
+    @Test
+    void submitJob_returnsAcceptedWithLocation() throws Exception {
+        GenerationJobService.GenerationJob job = new GenerationJobService.GenerationJob("abc", SolverMode.BRANCH_AND_BOUND);
+        Mockito.when(jobService.submit(SolverMode.BRANCH_AND_BOUND)).thenReturn(job);
+
+        mockMvc.perform(post("/api/jobs").param("mode", "branch-and-bound"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/jobs/abc"))
+                .andExpect(jsonPath("$.id").value("abc"))
+                .andExpect(jsonPath("$.mode").value("branch-and-bound"))
+                .andExpect(jsonPath("$.status").value("queued"))
+                .andExpect(jsonPath("$.permutationsExplored").value(0));
+    }
+
+    @Test
+    void cancelJob_flagsProgress() throws Exception {
+        GenerationJobService.GenerationJob job = new GenerationJobService.GenerationJob("abc", SolverMode.PARALLEL);
+        job.getProgress().cancel();
+        Mockito.when(jobService.cancel("abc")).thenReturn(job);
+
+        mockMvc.perform(delete("/api/jobs/abc"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.cancelRequested").value(true));
+    }
+
+    @Test
+    void getJob_unknownId_returns404() throws Exception {
+        Mockito.when(jobService.getJob("missing"))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Tâche introuvable"));
+
+        mockMvc.perform(get("/api/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,65 @@
+package com.vietnamese.puzzle.controller;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import com.vietnamese.puzzle.service.PuzzleSolverService;
+import com.vietnamese.puzzle.service.SolutionSet;
+import com.vietnamese.puzzle.service.SolutionSetCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(PuzzleController.class)
+class PuzzleControllerTest {
+
+    private static final PuzzleDefinition SMALL = new PuzzleDefinition("a*b - c", List.of(0, 1, 2, 3, 4), 3, 2);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SolutionSetCache solutionSets;
+
+    @Test
+    void solve_returnsPageOfCachedSolutionSet() throws Exception {
+        SolutionSet solutions = new PuzzleSolverService(SMALL).solutionSet();
+        Mockito.when(solutionSets.get(SMALL)).thenReturn(solutions);
+
+        mockMvc.perform(post("/api/puzzles/solutions?offset=1&limit=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"expression\":\"a*b - c\",\"digits\":[4,3,2,1,0],\"slots\":3,\"target\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(6))
+                .andExpect(jsonPath("$.fingerprint").value(SMALL.fingerprint()))
+                .andExpect(jsonPath("$.solutions.length()").value(2))
+                .andExpect(jsonPath("$.solutions[0].solution[1]").value(4))
+                .andExpect(jsonPath("$.solutions[0].equation").value("1×4 − 2 = 2"));
+    }
+
+    @Test
+    void solve_rejectsInvalidDefinitions() throws Exception {
+        mockMvc.perform(post("/api/puzzles/solutions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"expression\":\"a + b\",\"digits\":[1,1],\"slots\":2,\"target\":2}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Chiffre en double : 1"));
+
+        Mockito.when(solutionSets.get(any())).thenThrow(new IllegalArgumentException("Expression invalide"));
+        mockMvc.perform(post("/api/puzzles/solutions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"expression\":\"a +\",\"digits\":[1,2],\"slots\":2,\"target\":2}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,12 +1,21 @@
 package com.vietnamese.puzzle.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietnamese.puzzle.dto.SolutionCursor;
+import com.vietnamese.puzzle.dto.SolutionQuery;
 import com.vietnamese.puzzle.dto.UpdateSolutionRequest;
 import com.vietnamese.puzzle.dto.ValidationRequest;
+import com.vietnamese.puzzle.model.PuzzleDefinition;
 import com.vietnamese.puzzle.model.PuzzleSolution;
 import com.vietnamese.puzzle.model.SolutionStatus;
+import com.vietnamese.puzzle.service.CompiledEquation;
+import com.vietnamese.puzzle.service.EquationCompiler;
+import com.vietnamese.puzzle.service.GenerationJobService;
+import com.vietnamese.puzzle.service.PermutationSpace;
 import com.vietnamese.puzzle.service.PuzzleSolverService;
 import com.vietnamese.puzzle.service.SolutionService;
+import com.vietnamese.puzzle.service.SolverMode;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -16,9 +25,15 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -27,6 +42,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(SolutionController.class)
 class SolutionControllerTest {
 
+    private static final CompiledEquation EQUATION = EquationCompiler.compile(PuzzleDefinition.DEFAULT);
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -36,6 +53,14 @@ class SolutionControllerTest {
     @MockBean
     private SolutionService solutionService;
 
+    @MockBean
+    private GenerationJobService jobService;
+
+    @BeforeEach
+    void configuredSpace() {
+        Mockito.when(solutionService.space()).thenReturn(PermutationSpace.of(PuzzleDefinition.DEFAULT));
+    }
+
     private PuzzleSolution sampleSolution() {
         return new PuzzleSolution(List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0, SolutionStatus.CORRECT);
     }
@@ -49,10 +74,75 @@ class SolutionControllerTest {
                 .andExpect(jsonPath("$.solutions").isArray());
     }
 
+    @Test
+    void listSolutions_withPositionFilters_usesStructuredSearch() throws Exception {
+        Mockito.when(solutionService.searchSolutions(any())).thenReturn(List.of(sampleSolution()));
+
+        mockMvc.perform(get("/api/solutions").param("pos[3]", "4").param("pos[0]", "1-2").param("status", "correct"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.solutions").isArray());
+
+        Mockito.verify(solutionService).searchSolutions(argThat(query ->
+                query.positions().contains(new SolutionQuery.DigitRange(3, 4, 4))
+                        && query.positions().contains(new SolutionQuery.DigitRange(0, 1, 2))
+                        && query.status() == SolutionStatus.CORRECT));
+        Mockito.verify(solutionService, Mockito.never()).getSolutions(any());
+    }
+
+    @Test
+    void listSolutions_rejectsInvalidPositionFilter() throws Exception {
+        mockMvc.perform(get("/api/solutions").param("pos[12]", "4"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listSolutions_withLimit_returnsPageAndCursor() throws Exception {
+        SolutionCursor next = new SolutionCursor(OffsetDateTime.parse("2024-01-01T10:00:00Z"), 42L);
+        Mockito.when(solutionService.getSolutionPage(any(), isNull(), eq(2)))
+                .thenReturn(new SolutionService.SolutionPage(List.of(sampleSolution(), sampleSolution()), next));
+
+        mockMvc.perform(get("/api/solutions").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.solutions.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(next.encode()));
+    }
+
+    @Test
+    void listSolutions_withCursor_decodesIt() throws Exception {
+        SolutionCursor cursor = new SolutionCursor(OffsetDateTime.parse("2024-01-01T10:00:00Z"), 42L);
+        Mockito.when(solutionService.getSolutionPage(any(), eq(cursor), eq(SolutionService.MAX_PAGE_SIZE)))
+                .thenReturn(new SolutionService.SolutionPage(List.of(), null));
+
+        mockMvc.perform(get("/api/solutions").param("cursor", cursor.encode()).param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/solutions").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listSolutions_returns304WhenETagMatches() throws Exception {
+        Mockito.when(solutionService.getDataVersion()).thenReturn(255L);
+        Mockito.when(solutionService.getSolutions(null)).thenReturn(List.of(sampleSolution()));
+
+        String eTag = mockMvc.perform(get("/api/solutions"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"ff\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/solutions").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        Mockito.when(solutionService.getDataVersion()).thenReturn(256L);
+        mockMvc.perform(get("/api/solutions").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void generateSolutions_returnsCount() throws Exception {
         SolutionService.GenerationResult result = new SolutionService.GenerationResult(List.of(sampleSolution()), 5);
-        Mockito.when(solutionService.generateAndSaveAll()).thenReturn(result);
+        Mockito.when(solutionService.generateAndSaveAll(SolverMode.PARALLEL)).thenReturn(result);
 
         mockMvc.perform(post("/api/solutions"))
                 .andExpect(status().isOk())
@@ -60,6 +150,58 @@ class SolutionControllerTest {
                 .andExpect(jsonPath("$.solutions[0].solution").isArray());
     }
 
+    @Test
+    void generateSolutions_rejectsUnknownMode() throws Exception {
+        mockMvc.perform(post("/api/solutions").param("mode", "quantum"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void generateSolutions_countOnlySkipsPersistence() throws Exception {
+        Mockito.when(solutionService.countSolutions()).thenReturn(136L);
+
+        mockMvc.perform(post("/api/solutions").param("countOnly", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(136))
+                .andExpect(jsonPath("$.solutions").doesNotExist());
+
+        Mockito.verify(solutionService, Mockito.never()).generateAndSaveAll(any());
+    }
+
+    @Test
+    void generateSolutions_withLimit_savesFirstSolutions() throws Exception {
+        SolutionService.GenerationResult result = new SolutionService.GenerationResult(List.of(sampleSolution()), 1);
+        Mockito.when(solutionService.generateAndSaveFirst(1)).thenReturn(result);
+
+        mockMvc.perform(post("/api/solutions").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+    }
+
+    @Test
+    void streamSolutions_writesNdjsonWithSummary() throws Exception {
+        Mockito.when(solutionService.generateAndSaveInChunks(anyInt(), any())).thenAnswer(invocation -> {
+            Consumer<List<PuzzleSolution>> onChunkSaved = invocation.getArgument(1);
+            onChunkSaved.accept(List.of(sampleSolution()));
+            onChunkSaved.accept(List.of(sampleSolution()));
+            return new SolutionService.GenerationResult(List.of(), 2, 3);
+        });
+
+        MvcResult pending = mockMvc.perform(post("/api/solutions/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(9, objectMapper.readTree(lines[0]).get("solution").size());
+        assertEquals(2, objectMapper.readTree(lines[2]).get("count").asInt());
+    }
+
     @Test
     void getSolution_returnsOne() throws Exception {
         Mockito.when(solutionService.getSolution(1L)).thenReturn(sampleSolution());
@@ -85,6 +227,51 @@ class SolutionControllerTest {
                 .andExpect(jsonPath("$.validation.isValid").value(true));
     }
 
+    @Test
+    void updateSolution_rejectsNonDigits() throws Exception {
+        UpdateSolutionRequest payload = new UpdateSolutionRequest(List.of(1, 2, 3, 4, 5, 6, 7, 8, 42));
+
+        mockMvc.perform(put("/api/solutions/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payload)))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("La solution doit contenir 9 chiffres parmi [1, 2, 3, 4, 5, 6, 7, 8, 9]"));
+    }
+
+    @Test
+    void slotsAndDigits_followTheConfiguredDefinition() throws Exception {
+        Mockito.when(solutionService.space()).thenReturn(new PermutationSpace(10, 0b11_1111_1111));
+        Mockito.when(solutionService.validate(anyList())).thenReturn(new PuzzleSolverService.PuzzleValidation(false, "eq", 12.0));
+        Mockito.when(solutionService.updateSolution(eq(1L), anyList())).thenReturn(sampleSolution());
+
+        mockMvc.perform(put("/api/solutions/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"solution\":[0,1,2,3,4,5,6,7,8,9]}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/solutions/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"solution\":[1,2,3,4,5,6,7,8,9]}"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.when(solutionService.validateBatch(any())).thenReturn(new PuzzleSolverService.BatchValidation(EQUATION,
+                new byte[9], new boolean[]{true}, new double[]{66.0}, 1));
+        mockMvc.perform(post("/api/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[[9,8,7,6,5,4,3,2,1,0]]"))
+                .andExpect(status().isOk());
+        Mockito.verify(solutionService).validateBatch(aryEq(new byte[]{9, 8, 7, 6, 5, 4, 3, 2, 1, 0}));
+
+        Mockito.when(solutionService.searchSolutions(any())).thenReturn(List.of());
+        mockMvc.perform(get("/api/solutions").param("pos[9]", "0"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/solutions").param("pos[10]", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/solutions").param("pos99999999999", "1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/solutions").param("pos[0]", "1-99999999999"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteAll_returnsMessage() throws Exception {
         mockMvc.perform(delete("/api/solutions"))
@@ -92,6 +279,15 @@ class SolutionControllerTest {
                 .andExpect(jsonPath("$.message").exists());
     }
 
+    @Test
+    void deleteAll_withStatus_deletesMatching() throws Exception {
+        Mockito.when(solutionService.deleteMatching(SolutionStatus.INCORRECT, null)).thenReturn(4);
+
+        mockMvc.perform(delete("/api/solutions").param("status", "incorrect"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(4));
+    }
+
     @Test
     void deleteOne_returnsMessage() throws Exception {
         mockMvc.perform(delete("/api/solutions/1"))
@@ -108,6 +304,84 @@ class SolutionControllerTest {
                         .content(objectMapper.writeValueAsString(new ValidationRequest(List.of(1,2,3,4,5,6,7,8,9)))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.isValid").value(true))
-                .andExpect(jsonPath("$.result").value(66.0));
+                .andExpect(jsonPath("$.result").value(66.0))
+                .andExpect(header().exists("X-Request-Id"));
+    }
+
+    @Test
+    void completePuzzle_returnsCountAndPage() throws Exception {
+        List<Integer> partial = Arrays.asList(null, null, null, null, 9, null, null, null, null);
+        Mockito.when(solutionService.complete(partial, 2, 1)).thenReturn(new SolutionService.CompletionPage(12, List.of(
+                new PuzzleSolverService.SolutionCandidate(List.of(1, 2, 3, 4, 9, 5, 6, 7, 8), "eq", 66.0))));
+
+        mockMvc.perform(post("/api/completions?offset=2&limit=1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"positions\":[null,null,null,null,9,null,null,null,null]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(12))
+                .andExpect(jsonPath("$.offset").value(2))
+                .andExpect(jsonPath("$.completions[0].solution[4]").value(9))
+                .andExpect(jsonPath("$.completions[0].equation").value("eq"));
+
+        mockMvc.perform(post("/api/completions?offset=-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"positions\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void generateDistributed_submitsJob() throws Exception {
+        Mockito.when(jobService.submitDistributed(3)).thenReturn(GenerationJobService.GenerationJob.distributed("abc", 3));
+
+        mockMvc.perform(post("/api/solutions/distributed?workers=3"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/jobs/abc"))
+                .andExpect(jsonPath("$.mode").value("distributed"))
+                .andExpect(jsonPath("$.workers").value(3))
+                .andExpect(jsonPath("$.status").value("queued"))
+                .andExpect(jsonPath("$.solutions").doesNotExist());
+
+        mockMvc.perform(post("/api/solutions/distributed?workers=0"))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(solutionService);
+    }
+
+    @Test
+    void validateBatch_acceptsJsonArrays() throws Exception {
+        Mockito.when(solutionService.validateBatch(any())).thenReturn(new PuzzleSolverService.BatchValidation(EQUATION,
+                new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+                new boolean[]{false, false}, new double[]{60.5, 0.0}, 0));
+
+        mockMvc.perform(post("/api/validate/batch?includeEquation=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[[1,2,3,4,5,6,7,8,9],[1,2]]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.validCount").value(0))
+                .andExpect(jsonPath("$.results[0].result").value(60.5))
+                .andExpect(jsonPath("$.results[0].equation").value("1 + 13×2÷3 + 4 + 12×5 − 6 − 11 + 7×8÷9 − 10 = 66"))
+                .andExpect(jsonPath("$.results[1].isValid").value(false));
+
+        Mockito.verify(solutionService).validateBatch(aryEq(
+                new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1}));
+    }
+
+    @Test
+    void validateBatch_acceptsBinaryBody() throws Exception {
+        byte[] body = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        Mockito.when(solutionService.validateBatch(any())).thenReturn(new PuzzleSolverService.BatchValidation(EQUATION,
+                body, new boolean[]{true}, new double[]{66.0}, 1));
+
+        mockMvc.perform(post("/api/validate/batch")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].isValid").value(true))
+                .andExpect(jsonPath("$.results[0].equation").doesNotExist());
+
+        mockMvc.perform(post("/api/validate/batch")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[10]))
+                .andExpect(status().isBadRequest());
     }
 }
@@ -0,0 +1,168 @@
+package com.vietnamese.puzzle.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Closed-loop load: each virtual-thread client sends its next request as soon as the previous one
+// returns, so latencies are per request and do not account for queueing a fixed arrival rate would see.
+// Run with: mvn test -Pload-test [-Dload.clients=64 -Dload.duration=PT20S -Dload.mix=list:50,validate:40,update:8,generate:2]
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SolutionLoadTest {
+
+    private enum Operation {
+        LIST, VALIDATE, UPDATE, GENERATE
+    }
+
+    private static final class OperationStats {
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final AtomicLong errors = new AtomicLong();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        int clients = Integer.getInteger("load.clients", 64);
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT20S"));
+        Map<Operation, Integer> mix = parseMix(System.getProperty("load.mix", "list:50,validate:40,update:8,generate:2"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        JsonNode seeded = objectMapper.readTree(send(http, post("/api/solutions?mode=branch-and-bound", "")).body());
+        List<JsonNode> solutions = new ArrayList<>();
+        seeded.get("solutions").forEach(solutions::add);
+
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                SplittableRandom random = new SplittableRandom(client);
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = pick(mix, random);
+                        HttpRequest request = buildRequest(operation, solutions.get(random.nextInt(solutions.size())));
+                        OperationStats operationStats = stats.get(operation);
+                        long start = System.nanoTime();
+                        try {
+                            int status = send(http, request).statusCode();
+                            operationStats.latencies.recordValue((System.nanoTime() - start) / 1_000);
+                            if (status >= 400) {
+                                operationStats.errors.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            operationStats.errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long totalRequests = 0;
+        long totalErrors = 0;
+        System.out.printf("%nload clients=%d duration=%.1fs%n", clients, elapsedSeconds);
+        System.out.printf("%-10s %9s %9s %10s %10s %10s %10s %7s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            long errors = entry.getValue().errors.get();
+            totalRequests += latencies.getTotalCount();
+            totalErrors += errors;
+            System.out.printf("%-10s %9d %9.1f %10.2f %10.2f %10.2f %10.2f %7d%n",
+                    entry.getKey().name().toLowerCase(), latencies.getTotalCount(),
+                    latencies.getTotalCount() / elapsedSeconds,
+                    latencies.getValueAtPercentile(50) / 1e3, latencies.getValueAtPercentile(99) / 1e3,
+                    latencies.getValueAtPercentile(99.9) / 1e3, latencies.getMaxValue() / 1e3, errors);
+        }
+        System.out.printf("total      %9d %9.1f%n%n", totalRequests, totalRequests / elapsedSeconds);
+
+        assertTrue(totalRequests > 0);
+        assertEquals(0, totalErrors);
+    }
+
+    private HttpRequest buildRequest(Operation operation, JsonNode solution) {
+        return switch (operation) {
+            case LIST -> HttpRequest.newBuilder(uri("/api/solutions")).GET().build();
+            case VALIDATE -> post("/api/validate", "{\"positions\":" + solution.get("solution") + "}");
+            case UPDATE -> HttpRequest.newBuilder(uri("/api/solutions/" + solution.get("id").asLong()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"solution\":" + solution.get("solution") + "}"))
+                    .build();
+            case GENERATE -> post("/api/solutions?mode=parallel", "");
+        };
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static HttpResponse<String> send(HttpClient http, HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split(":");
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, SplittableRandom random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int draw = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,36 @@
+package com.vietnamese.puzzle.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntegerListConverterTest {
+
+    private final IntegerListConverter converter = new IntegerListConverter();
+
+    @Test
+    void roundTrip_keepsDigitsAndOrder() {
+        List<Integer> digits = List.of(9, 8, 7, 6, 5, 4, 3, 2, 1);
+
+        Long column = converter.convertToDatabaseColumn(digits);
+        List<Integer> restored = converter.convertToEntityAttribute(column);
+
+        assertEquals(digits, restored);
+        assertEquals(column, converter.convertToDatabaseColumn(restored));
+        assertEquals(9, ((PackedDigitList) restored).digit(0));
+    }
+
+    @Test
+    void emptyAndNull_mapToEmptyList() {
+        assertEquals(List.of(), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(null)));
+        assertEquals(List.of(), converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void outOfRangeDigits_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn(List.of(1, 16)));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn(List.of(-1)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// starts real RangeWorker processes from the test class path
+class DistributedSolverTest {
+
+    // 10 slots: 3 628 800 arrangements, enough for a range to still be running when a worker goes idle
+    private static final PuzzleDefinition TEN_SLOTS = new PuzzleDefinition(
+            "a + 13*b/c + d + 12*e - f - 11 + g*h/i - 10 - j", List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), 10, 60);
+
+    @TempDir
+    private Path checkpoints;
+
+    @Test
+    void solve_matchesInProcessSearchAndCheckpointsEveryRange() throws Exception {
+        SolutionSet expected = new PuzzleSolverService(PuzzleDefinition.DEFAULT).solutionSet();
+        DistributedSolver solver = new DistributedSolver(checkpoints, 4, "-Xmx64m -XX:+UseSerialGC");
+        GenerationProgress progress = new GenerationProgress();
+
+        DistributedSolver.DistributedOutcome outcome = solver.solve(PuzzleDefinition.DEFAULT, 3, progress);
+
+        assertArrayEquals(ranks(expected), ranks(outcome.getSolutions()));
+        assertEquals(362_880, progress.permutationsExplored());
+        assertEquals(136, progress.solutionsFound());
+        assertEquals(outcome.getRangesCompleted(), Files.readAllLines(solver.checkpointFile(PuzzleDefinition.DEFAULT)).size());
+
+        // a finished run is served from its checkpoint without starting any worker
+        DistributedSolver.DistributedOutcome again = solver.solve(PuzzleDefinition.DEFAULT, 3, null);
+        assertEquals(0, again.getWorkers());
+        assertEquals(outcome.getRangesCompleted(), again.getRangesResumed());
+        assertArrayEquals(ranks(expected), ranks(again.getSolutions()));
+    }
+
+    @Test
+    void solve_resumesFromPartialCheckpointAndIgnoresTornLine() throws Exception {
+        SolutionSet expected = new PuzzleSolverService(PuzzleDefinition.DEFAULT).solutionSet();
+        DistributedSolver solver = new DistributedSolver(checkpoints, 4, "-Xmx64m -XX:+UseSerialGC");
+        long half = 181_440;
+        StringBuilder finished = new StringBuilder("0 " + half);
+        LongStream.of(ranks(expected)).filter(rank -> rank < half).forEach(rank -> finished.append(' ').append(rank));
+        Files.createDirectories(checkpoints);
+        Files.writeString(solver.checkpointFile(PuzzleDefinition.DEFAULT), finished + "\n" + half + " 2000");
+        GenerationProgress progress = new GenerationProgress();
+
+        DistributedSolver.DistributedOutcome outcome = solver.solve(PuzzleDefinition.DEFAULT, 2, progress);
+
+        assertEquals(1, outcome.getRangesResumed());
+        assertEquals(362_880 - half, progress.permutationsExplored());
+        assertArrayEquals(ranks(expected), ranks(outcome.getSolutions()));
+    }
+
+    @Test
+    void solve_stealsTheTailOfARunningRange() throws Exception {
+        SolutionSet expected = new PuzzleSolverService(TEN_SLOTS).solutionSet();
+        DistributedSolver solver = new DistributedSolver(checkpoints, 1, "-Xmx64m -XX:+UseSerialGC");
+        // the upper half is already checkpointed, so the lower half is the only range for two workers:
+        // the second one can only get work by stealing
+        long half = 1_814_400;
+        StringBuilder finished = new StringBuilder(half + " 3628800");
+        LongStream.of(ranks(expected)).filter(rank -> rank >= half).forEach(rank -> finished.append(' ').append(rank));
+        Files.createDirectories(checkpoints);
+        Files.writeString(solver.checkpointFile(TEN_SLOTS), finished + "\n");
+
+        DistributedSolver.DistributedOutcome outcome = solver.solve(TEN_SLOTS, 2, null);
+
+        assertTrue(outcome.getRangesStolen() > 0);
+        assertEquals(outcome.getRangesStolen() + 1, outcome.getRangesCompleted());
+        assertArrayEquals(ranks(expected), ranks(outcome.getSolutions()));
+    }
+
+    private static long[] ranks(SolutionSet solutions) {
+        return LongStream.range(0, solutions.size()).map(ordinal -> solutions.rank((int) ordinal)).toArray();
+    }
+
+    @Test
+    void loadCheckpoint_returnsOnlyCompleteRuns() throws Exception {
+        DistributedSolver solver = new DistributedSolver(checkpoints, 4, "-Xmx64m -XX:+UseSerialGC");
+        assertTrue(solver.loadCheckpoint(PuzzleDefinition.DEFAULT).isEmpty());
+
+        Files.createDirectories(checkpoints);
+        Files.writeString(solver.checkpointFile(PuzzleDefinition.DEFAULT), "0 181440\n");
+        assertTrue(solver.loadCheckpoint(PuzzleDefinition.DEFAULT).isEmpty());
+
+        // a complete-looking but stale checkpoint: a non-solution and a rank outside the space
+        SolutionSet expected = new PuzzleSolverService(PuzzleDefinition.DEFAULT).solutionSet();
+        StringBuilder stale = new StringBuilder("0 362880 0 400000");
+        LongStream.of(ranks(expected)).forEach(rank -> stale.append(' ').append(rank));
+        Files.writeString(solver.checkpointFile(PuzzleDefinition.DEFAULT), stale + "\n");
+        assertTrue(solver.loadCheckpoint(PuzzleDefinition.DEFAULT).isEmpty());
+
+        DistributedSolver.DistributedOutcome outcome = solver.solve(PuzzleDefinition.DEFAULT, 2, null);
+        assertEquals(0, outcome.getRangesResumed());
+        assertArrayEquals(ranks(expected), ranks(outcome.getSolutions()));
+        assertArrayEquals(ranks(expected), ranks(solver.loadCheckpoint(PuzzleDefinition.DEFAULT).orElseThrow()));
+    }
+}
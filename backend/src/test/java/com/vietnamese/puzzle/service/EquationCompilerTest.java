@@ -0,0 +1,83 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationCompilerTest {
+
+    private final CompiledEquation equation = EquationCompiler.compile(PuzzleDefinition.DEFAULT);
+
+    @Test
+    void compile_matchesHandDerivedEquationOnEveryPermutation() {
+        PermutationSpace space = PermutationSpace.of(PuzzleDefinition.DEFAULT);
+        int solutions = 0;
+        for (long rank = 0; rank < space.size(); rank++) {
+            int[] p = space.unrank(rank);
+            assertEquals(handDerivedIsSolution(p), equation.isSolution(p), Arrays.toString(p));
+
+            double expected = p[0] + (13.0 * p[1]) / p[2] + p[3] + 12.0 * p[4] - p[5] - 11.0
+                    + (p[6] * p[7]) / (double) p[8] - 10.0;
+            assertEquals(expected, equation.evaluate(p), 1e-12, Arrays.toString(p));
+            if (equation.isSolution(p)) {
+                solutions++;
+            }
+        }
+        assertEquals(136, solutions);
+    }
+
+    @Test
+    void format_rendersTheDefaultTemplate() {
+        assertEquals("1 + 13×2÷3 + 4 + 12×5 − 6 − 11 + 7×8÷9 − 10 = 66", equation.format(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        assertEquals("? + 13×?÷? + ? + 12×? − ? − 11 + ?×?÷? − 10 = 66", equation.format((List<Integer>) null));
+        assertEquals("? + 13×?÷? + ? + 12×? − ? − 11 + ?×?÷? − 10 = 66", equation.format(List.of(1, 2, 3)));
+    }
+
+    @Test
+    void compile_handlesParenthesesUnaryMinusAndZeroDivisors() {
+        CompiledEquation compiled = EquationCompiler.compile(new PuzzleDefinition("-(a - b) * c / (b - 2)", List.of(1, 2, 3, 4), 3, 4));
+
+        assertTrue(compiled.isSolution(new int[]{1, 3, 2}));
+        assertFalse(compiled.isSolution(new int[]{1, 4, 3}));
+        assertEquals(4.5, compiled.evaluate(new int[]{1, 4, 3}));
+        assertFalse(compiled.isSolution(new int[]{1, 2, 3}));
+        assertEquals(Double.POSITIVE_INFINITY, compiled.evaluate(new int[]{1, 2, 3}));
+        assertEquals("−(1 − 3)×2÷(3 − 2) = 4", compiled.format(new int[]{1, 3, 2}));
+    }
+
+    @Test
+    void compile_rejectsMalformedExpressions() {
+        List<Integer> digits = List.of(1, 2, 3);
+        assertThrows(IllegalArgumentException.class, () -> EquationCompiler.compile(new PuzzleDefinition("a + d", digits, 3, 0)));
+        assertThrows(IllegalArgumentException.class, () -> EquationCompiler.compile(new PuzzleDefinition("a + * b", digits, 3, 0)));
+        assertThrows(IllegalArgumentException.class, () -> EquationCompiler.compile(new PuzzleDefinition("(a + b", digits, 3, 0)));
+        assertThrows(IllegalArgumentException.class, () -> EquationCompiler.compile(new PuzzleDefinition("a ^ b", digits, 3, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new PuzzleDefinition("a", List.of(1, 1), 1, 0));
+    }
+
+    @Test
+    void compile_rejectsDefinitionsThatCouldOverflowExactArithmetic() {
+        // 0/4 against 2^62 would be compared as 0 == 4·2^62, which wraps around to 0
+        assertThrows(IllegalArgumentException.class,
+                () -> EquationCompiler.compile(new PuzzleDefinition("a/b", List.of(0, 4), 2, 4_611_686_018_427_387_904L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> EquationCompiler.compile(new PuzzleDefinition("a*3037000500*3037000500", List.of(1, 2), 1, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> EquationCompiler.compile(new PuzzleDefinition("a + 99999999999999999999", List.of(1, 2), 1, 0)));
+
+        CompiledEquation large = EquationCompiler.compile(new PuzzleDefinition("a/b", List.of(1, 4), 2, 1L << 60));
+        assertFalse(large.isSolution(new int[]{4, 1}));
+    }
+
+    // hand-derived reference for PuzzleDefinition.DEFAULT, multiplied through by c*i to stay in integers
+    static boolean handDerivedIsSolution(int[] p) {
+        int c = p[2];
+        int i = p[8];
+        long linear = p[0] + p[3] + 12 * p[4] - p[5] - 11 - 10 - PuzzleDefinition.DEFAULT.target();
+        return linear * c * i + 13 * p[1] * i + p[6] * p[7] * c == 0;
+    }
+}
@@ -1,8 +1,18 @@
 package com.vietnamese.puzzle.service;
 
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,4 +31,322 @@ class PuzzleSolverServiceTest {
         assertFalse(solverService.validate(List.of(1, 1, 2, 3, 4, 5, 6, 7, 8)).isValid());
         assertFalse(solverService.validate(List.of(1, 2, 3)).isValid());
     }
+
+    @Test
+    void solve_usesExactArithmetic() {
+        List<PuzzleSolverService.SolutionCandidate> solutions = solverService.solve();
+
+        assertTrue(solutions.stream().allMatch(candidate -> candidate.result() == 66.0));
+        assertEquals(solutions.getFirst().equation(), solverService.validate(solutions.getFirst().positions()).equation());
+
+        assertFalse(solverService.validate(List.of(0, 2, 3, 4, 5, 6, 7, 8, 9)).isValid());
+        assertFalse(solverService.validate(List.of(1, 2, 3, 4, 5, 6, 7, 8, 10)).isValid());
+    }
+
+    @Test
+    void solve_parallelMatchesSequentialOrder() {
+        List<List<Integer>> sequential = solverService.solve(SolverMode.SEQUENTIAL).stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .toList();
+        List<List<Integer>> parallel = solverService.solve(SolverMode.PARALLEL).stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .toList();
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void solve_branchAndBoundPrunesWithoutLosingSolutions() {
+        PuzzleSolverService.SolveOutcome exhaustive = solverService.solveWithStatistics(SolverMode.SEQUENTIAL);
+        PuzzleSolverService.SolveOutcome bounded = solverService.solveWithStatistics(SolverMode.BRANCH_AND_BOUND);
+
+        assertEquals(
+                exhaustive.solutions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList(),
+                bounded.solutions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        assertEquals(0, exhaustive.statistics().nodesPruned());
+        assertTrue(bounded.statistics().nodesPruned() > 0);
+        assertTrue(bounded.statistics().nodesVisited() < exhaustive.statistics().nodesVisited());
+    }
+
+    @Test
+    void solve_minimalChangeVisitsEveryPermutationOnce() {
+        PuzzleSolverService.SolveOutcome heap = solverService.solveWithStatistics(SolverMode.MINIMAL_CHANGE);
+
+        assertEquals(362_880, heap.statistics().nodesVisited());
+        assertEquals(
+                solverService.solve(SolverMode.SEQUENTIAL).stream().map(PuzzleSolverService.SolutionCandidate::positions).toList(),
+                heap.solutions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+    }
+
+    @Test
+    void solve_symmetryReducedExpandsToSameSolutions() {
+        PuzzleSolverService.SolveOutcome exhaustive = solverService.solveWithStatistics(SolverMode.SEQUENTIAL);
+        PuzzleSolverService.SolveOutcome reduced = solverService.solveWithStatistics(SolverMode.SYMMETRY_REDUCED);
+
+        assertEquals(
+                exhaustive.solutions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList(),
+                reduced.solutions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        assertTrue(reduced.statistics().nodesVisited() * 3 < exhaustive.statistics().nodesVisited());
+    }
+
+    @Test
+    void validate_usesPermutationIndex() {
+        PermutationSpace space = solverService.space();
+        assertEquals(0, space.rank(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        assertEquals(362_879, space.rank(new int[]{9, 8, 7, 6, 5, 4, 3, 2, 1}));
+        assertEquals(-1, space.rank(new int[]{1, 1, 3, 4, 5, 6, 7, 8, 9}));
+        assertArrayEquals(new int[]{9, 8, 7, 6, 5, 4, 3, 2, 1}, space.unrank(362_879));
+
+        for (PermutationSpace walked : List.of(space, new PermutationSpace(3, 0b11111))) {
+            int[] digits = walked.unrank(0);
+            for (long rank = 1; rank < walked.size(); rank++) {
+                assertTrue(walked.advance(digits));
+                assertArrayEquals(walked.unrank(rank), digits);
+            }
+            assertFalse(walked.advance(digits));
+        }
+
+        for (PuzzleSolverService.SolutionCandidate candidate : solverService.solve()) {
+            int[] digits = candidate.positions().stream().mapToInt(Integer::intValue).toArray();
+            assertTrue(solverService.isValid(digits));
+            assertTrue(EquationCompilerTest.handDerivedIsSolution(digits));
+        }
+        assertFalse(solverService.isValid(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        assertEquals("1 + 13×2÷3 + 4 + 12×5 − 6 − 11 + 7×8÷9 − 10 = 66",
+                solverService.validate(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9)).equation());
+    }
+
+    @Test
+    void solve_reportsProgressAndHonoursCancellation() {
+        for (SolverMode mode : SolverMode.values()) {
+            GenerationProgress progress = new GenerationProgress();
+            PuzzleSolverService.SolveOutcome outcome = solverService.solveWithStatistics(mode, progress);
+
+            assertEquals(outcome.statistics().permutationsExplored(), progress.permutationsExplored(), mode.name());
+            assertEquals(136, progress.solutionsFound(), mode.name());
+        }
+        // leaves only: the exhaustive modes check each of the 9! arrangements exactly once
+        assertEquals(362_880, solverService.solveWithStatistics(SolverMode.SEQUENTIAL).statistics().permutationsExplored());
+        assertEquals(362_880, solverService.solveWithStatistics(SolverMode.PARALLEL).statistics().permutationsExplored());
+        assertTrue(solverService.solveWithStatistics(SolverMode.SEQUENTIAL).statistics().nodesVisited() > 362_880);
+
+        PuzzleSolverService fresh = new PuzzleSolverService();
+        GenerationProgress cancelled = new GenerationProgress();
+        cancelled.cancel();
+        assertThrows(CancellationException.class, () -> fresh.solve(SolverMode.PARALLEL, cancelled));
+        assertThrows(CancellationException.class, () -> fresh.solve(SolverMode.MINIMAL_CHANGE, cancelled));
+        assertTrue(cancelled.permutationsExplored() > 0);
+        assertThrows(CancellationException.class, () -> solverService.solve(SolverMode.PARALLEL, cancelled));
+    }
+
+    @Test
+    void solve_memoizesOutcomePerMode() {
+        PuzzleSolverService.SolveOutcome first = solverService.solveWithStatistics(SolverMode.PARALLEL);
+
+        assertSame(first, solverService.solveWithStatistics(SolverMode.PARALLEL));
+        assertNotSame(first, solverService.solveWithStatistics(SolverMode.SEQUENTIAL));
+        assertThrows(UnsupportedOperationException.class, () -> first.solutions().clear());
+    }
+
+    @Test
+    void solve_recordsSearchMetricsOncePerComputation() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PuzzleSolverService instrumented = new PuzzleSolverService(PuzzleDefinition.DEFAULT, new PuzzleMetrics(registry));
+
+        PuzzleSolverService.SolveOutcome outcome = instrumented.solveWithStatistics(SolverMode.PARALLEL);
+        instrumented.solveWithStatistics(SolverMode.PARALLEL);
+        // the validation index is built lazily, by the bounded search
+        assertEquals(136, instrumented.count());
+
+        assertEquals(outcome.statistics().nodesVisited(),
+                registry.get("puzzle.solver.nodes.visited").tag("mode", "parallel").counter().count());
+        assertEquals(136, registry.get("puzzle.solver.solutions.found").tag("mode", "parallel").counter().count());
+        assertEquals(1, registry.get("puzzle.solver.solve.time").tag("mode", "parallel").timer().count());
+        assertTrue(registry.get("puzzle.solver.nodes.pruned").tag("mode", "branch-and-bound").counter().count() > 0);
+    }
+
+    @Test
+    void validateBatch_matchesSingleValidation() {
+        List<PuzzleSolverService.SolutionCandidate> solutions = solverService.solve();
+        List<List<Integer>> items = List.of(
+                solutions.getFirst().positions(),
+                List.of(1, 2, 3, 4, 5, 6, 7, 8, 9),
+                List.of(1, 1, 3, 4, 5, 6, 7, 8, 9),
+                solutions.getLast().positions());
+
+        byte[] digits = new byte[items.size() * 9];
+        for (int item = 0; item < items.size(); item++) {
+            for (int k = 0; k < 9; k++) {
+                digits[item * 9 + k] = items.get(item).get(k).byteValue();
+            }
+        }
+
+        PuzzleSolverService.BatchValidation batch = solverService.validateBatch(digits);
+        assertEquals(4, batch.size());
+        assertEquals(2, batch.validCount());
+        for (int item = 0; item < items.size(); item++) {
+            PuzzleSolverService.PuzzleValidation single = solverService.validate(items.get(item));
+            assertEquals(single.isValid(), batch.isValid(item));
+            assertEquals(single.result(), batch.result(item));
+        }
+        assertEquals(solutions.getFirst().equation(), batch.equation(0));
+        assertEquals(0.0, batch.result(2));
+    }
+
+    @Test
+    void stream_isLazyAndMatchesSolve() {
+        List<List<Integer>> solved = solverService.solve().stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .toList();
+
+        assertEquals(solved, solverService.stream().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        assertEquals(solved, solverService.stream().parallel().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        assertEquals(136, solverService.count());
+        assertEquals(solved.subList(0, 5), solverService.findFirst(5).stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .toList());
+
+        List<PuzzleSolverService.SolutionCandidate> sample = solverService.sample(10, new Random(42));
+        assertEquals(10, sample.size());
+        assertEquals(10, sample.stream().map(PuzzleSolverService.SolutionCandidate::positions).distinct().count());
+        assertTrue(sample.stream().allMatch(candidate -> solved.contains(candidate.positions())));
+    }
+
+    @Test
+    void stream_walksPermutationSpaceUntilIndexIsBuilt() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PuzzleSolverService cold = new PuzzleSolverService(PuzzleDefinition.DEFAULT, new PuzzleMetrics(registry));
+        List<List<Integer>> solved = solverService.solve().stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .toList();
+
+        assertEquals(solved.subList(0, 3), cold.findFirst(3).stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .toList());
+        assertEquals(solved, cold.stream().parallel().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        List<PuzzleSolverService.SolutionCandidate> sample = cold.sample(10, new Random(7));
+        assertEquals(10, sample.stream().map(PuzzleSolverService.SolutionCandidate::positions).distinct().count());
+        assertTrue(sample.stream().allMatch(candidate -> solved.contains(candidate.positions())));
+        assertEquals(0, registry.get("puzzle.solver.solve.time").tag("mode", "branch-and-bound").timer().count());
+    }
+
+    @Test
+    void definition_otherTargetsAndSlotCountsAreSolvedGenerically() {
+        PuzzleSolverService shifted = new PuzzleSolverService(new PuzzleDefinition(
+                PuzzleDefinition.DEFAULT.expression(), PuzzleDefinition.DEFAULT.digits(), 9, 67));
+        List<List<Integer>> sequential = shifted.solve(SolverMode.SEQUENTIAL).stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .toList();
+
+        for (SolverMode mode : SolverMode.values()) {
+            assertEquals(sequential, shifted.solve(mode).stream()
+                    .map(PuzzleSolverService.SolutionCandidate::positions)
+                    .toList(), mode.name());
+        }
+        assertEquals(sequential.size(), shifted.count());
+        assertTrue(sequential.stream().allMatch(positions -> shifted.validate(positions).result() == 67.0));
+        assertTrue(shifted.solveWithStatistics(SolverMode.BRANCH_AND_BOUND).statistics().nodesPruned() > 0);
+
+        PuzzleSolverService small = new PuzzleSolverService(new PuzzleDefinition("a*b - c", List.of(0, 1, 2, 3, 4), 3, 2));
+        assertEquals(List.of(List.of(1, 2, 0), List.of(1, 4, 2), List.of(2, 1, 0), List.of(2, 3, 4), List.of(3, 2, 4), List.of(4, 1, 2)),
+                small.stream().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        assertEquals(60, small.space().size());
+        assertEquals("2×3 − 4 = 2", small.validate(List.of(2, 3, 4)).equation());
+        assertEquals(-4.0, small.validate(List.of(0, 3, 4)).result());
+        assertFalse(small.validate(List.of(1, 2, 3, 4)).isValid());
+    }
+
+    @Test
+    void definition_defaultExpressionOverTenSlotsIsSolvedGenerically() {
+        PuzzleSolverService tenSlots = new PuzzleSolverService(new PuzzleDefinition(
+                PuzzleDefinition.DEFAULT.expression(), List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), 10, 66));
+
+        for (SolverMode mode : SolverMode.values()) {
+            assertEquals(1244, tenSlots.solve(mode).size(), mode.name());
+        }
+        assertEquals(1244, tenSlots.count());
+    }
+
+    @Test
+    void solve_branchAndBoundPrunesAnyDefinitionWithIntervalBounds() {
+        for (PuzzleDefinition definition : List.of(
+                new PuzzleDefinition("a*b - c*d + e/(f - g) - 3", List.of(1, 2, 3, 4, 5, 6, 7, 8), 7, 40),
+                new PuzzleDefinition("-(a - b)*c/(d - 2) + e", List.of(0, 1, 2, 3, 4, 5, 6), 5, 9))) {
+            PuzzleSolverService generic = new PuzzleSolverService(definition);
+            PuzzleSolverService.SolveOutcome exhaustive = generic.solveWithStatistics(SolverMode.SEQUENTIAL);
+            PuzzleSolverService.SolveOutcome bounded = generic.solveWithStatistics(SolverMode.BRANCH_AND_BOUND);
+
+            assertFalse(exhaustive.solutions().isEmpty(), definition.expression());
+            assertEquals(
+                    exhaustive.solutions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList(),
+                    bounded.solutions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList(),
+                    definition.expression());
+            assertTrue(bounded.statistics().nodesPruned() > 0, definition.expression());
+            assertTrue(bounded.statistics().nodesVisited() < exhaustive.statistics().nodesVisited(), definition.expression());
+        }
+    }
+
+    @Test
+    void solutionSet_matchesPartialAssignmentsLikeAFilter() {
+        SolutionSet solutions = solverService.solutionSet();
+        List<List<Integer>> all = solverService.stream().map(PuzzleSolverService.SolutionCandidate::positions).toList();
+        List<List<Integer>> partials = new ArrayList<>(List.of(
+                Arrays.asList(null, null, null, null, null, null, null, null, null),
+                Arrays.asList(null, null, null, null, 9, null, null, null, null),
+                Arrays.asList(1, null, null, null, null, null, null, null, 9),
+                Arrays.asList(1, 1, null, null, null, null, null, null, null),
+                Arrays.asList(0, null, null, null, null, null, null, null, null)));
+        for (List<Integer> solution : all.subList(0, 5)) {
+            List<Integer> partial = new ArrayList<>(solution);
+            partial.set(2, null);
+            partial.set(5, null);
+            partials.add(partial);
+        }
+
+        for (List<Integer> partial : partials) {
+            List<List<Integer>> expected = all.stream()
+                    .filter(solution -> IntStream.range(0, 9).allMatch(k -> partial.get(k) == null || partial.get(k).equals(solution.get(k))))
+                    .toList();
+            BitSet matches = solutions.matching(partial);
+            assertEquals(expected, matches.stream().mapToObj(ordinal -> solutions.candidate(ordinal).positions()).toList(),
+                    partial.toString());
+        }
+        assertEquals(136, solutions.matching(partials.getFirst()).cardinality());
+        assertThrows(IllegalArgumentException.class, () -> solutions.matching(List.of(1, 2)));
+    }
+
+    @Test
+    void adopt_installsExternallyComputedSolutionSet() {
+        PuzzleSolverService lazy = new PuzzleSolverService(PuzzleDefinition.DEFAULT);
+        SolutionSet computed = solverService.solutionSet();
+
+        assertSame(computed, lazy.adopt(computed));
+        assertSame(computed, lazy.solutionSet());
+        assertThrows(IllegalArgumentException.class, () -> lazy.adopt(new PuzzleSolverService(
+                new PuzzleDefinition("a*b - c", List.of(0, 1, 2, 3, 4), 3, 2)).solutionSet()));
+    }
+
+    @Test
+    void oversizedSpace_isNeverSearchedInProcess() {
+        PuzzleSolverService solver = new PuzzleSolverService(PuzzleDefinition.DEFAULT, PuzzleMetrics.unregistered(), 1_000);
+        SolutionSet solutions = new PuzzleSolverService().solutionSet();
+        List<Integer> solution = solutions.candidate(0).positions();
+
+        ResponseStatusException unavailable = assertThrows(ResponseStatusException.class, solver::solutionSet);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unavailable.getStatusCode());
+        assertThrows(ResponseStatusException.class, () -> solver.solve(SolverMode.BRANCH_AND_BOUND));
+        assertThrows(ResponseStatusException.class, () -> solver.sample(3, new Random(1)));
+        assertThrows(ResponseStatusException.class, () -> solver.findFirst(200));
+        assertThrows(ResponseStatusException.class, solver::stream);
+
+        // validation answers exactly from the equation until an index is adopted
+        assertTrue(solver.validate(solution).isValid());
+        assertFalse(solver.validate(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9)).isValid());
+
+        solver.adopt(solutions);
+        assertEquals(136, solver.count());
+        assertEquals(3, solver.sample(3, new Random(1)).size());
+        assertEquals(solutions.candidate(0).positions(), solver.findFirst(1).getFirst().positions());
+        assertEquals(136, solver.stream().count());
+    }
 }
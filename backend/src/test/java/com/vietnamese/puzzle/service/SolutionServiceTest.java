@@ -1,19 +1,36 @@
 package com.vietnamese.puzzle.service;
 
+import com.vietnamese.puzzle.dto.SolutionQuery;
+import com.vietnamese.puzzle.model.PackedDigitList;
+import com.vietnamese.puzzle.model.PuzzleDefinition;
 import com.vietnamese.puzzle.model.PuzzleSolution;
 import com.vietnamese.puzzle.model.SolutionStatus;
 import com.vietnamese.puzzle.repository.PuzzleSolutionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +44,15 @@ class SolutionServiceTest {
     @Mock
     private PuzzleSolverService solverService;
 
+    @Mock
+    private DistributedSolver distributedSolver;
+
+    @Spy
+    private SolutionReadCache readCache = new SolutionReadCache(16, Duration.ofMinutes(1));
+
+    @Spy
+    private PuzzleMetrics metrics = PuzzleMetrics.unregistered();
+
     @InjectMocks
     private SolutionService service;
 
@@ -57,20 +83,156 @@ class SolutionServiceTest {
         verify(repository).findByEquationContainingIgnoreCase(eq("66"), any(Sort.class));
     }
 
+    @Test
+    void searchSolutions_usesSpecification() {
+        SolutionQuery query = new SolutionQuery(List.of(new SolutionQuery.DigitRange(0, 1, 1)), null, null, null, null);
+        when(repository.findAll(ArgumentMatchers.<Specification<PuzzleSolution>>any(), any(Sort.class)))
+                .thenReturn(List.of(sampleSolution));
+
+        assertEquals(1, service.searchSolutions(query).size());
+    }
+
     @Test
     void generateAndSaveAll_mapsCandidates() {
         PuzzleSolverService.SolutionCandidate candidate = new PuzzleSolverService.SolutionCandidate(
                 List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0);
 
-        when(solverService.solve()).thenReturn(List.of(candidate));
+        when(solverService.solve(SolverMode.SEQUENTIAL)).thenReturn(List.of(candidate));
         when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        SolutionService.GenerationResult result = service.generateAndSaveAll();
+        SolutionService.GenerationResult result = service.generateAndSaveAll(SolverMode.SEQUENTIAL);
 
         assertEquals(1, result.getSolutions().size());
+        assertTrue(result.getComputationTimeMs() >= result.getSolveTimeMs());
+        assertTrue(result.getComputationTimeMs() >= result.getPersistenceTimeMs());
         verify(repository).saveAll(anyList());
     }
 
+    @Test
+    void generateAndSaveAll_coalescesConcurrentCalls() throws Exception {
+        CountDownLatch solving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(solverService.solve(SolverMode.PARALLEL)).thenAnswer(invocation -> {
+            solving.countDown();
+            release.await();
+            return List.of(new PuzzleSolverService.SolutionCandidate(List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0));
+        });
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<SolutionService.GenerationResult> leader =
+                    executor.submit(() -> service.generateAndSaveAll(SolverMode.PARALLEL));
+            solving.await();
+            List<Future<SolutionService.GenerationResult>> followers = new ArrayList<>();
+            for (int k = 0; k < 4; k++) {
+                followers.add(executor.submit(() -> service.generateAndSaveAll(SolverMode.PARALLEL)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<SolutionService.GenerationResult> follower : followers) {
+                assertSame(leader.get(), follower.get());
+            }
+        }
+        verify(solverService, times(1)).solve(SolverMode.PARALLEL);
+        verify(repository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void generateAndSaveAll_withProgress_persistsInChunks() {
+        List<PuzzleSolverService.SolutionCandidate> candidates = IntStream.range(0, 60)
+                .mapToObj(rank -> new PuzzleSolverService.SolutionCandidate(
+                        PackedDigitList.of(PermutationSpace.of(PuzzleDefinition.DEFAULT).unrank(rank)), "eq", 66.0))
+                .toList();
+        GenerationProgress progress = new GenerationProgress();
+
+        when(solverService.solve(SolverMode.PARALLEL, progress)).thenReturn(candidates);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SolutionService.GenerationResult result = service.generateAndSaveAll(SolverMode.PARALLEL, progress);
+
+        assertEquals(60, result.getInserted());
+        assertEquals(60, progress.rowsPersisted());
+        verify(repository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void generateAndSaveAll_whenCancelled_persistsNothing() {
+        GenerationProgress progress = new GenerationProgress();
+        progress.cancel();
+        when(solverService.solve(SolverMode.PARALLEL, progress)).thenReturn(List.of(
+                new PuzzleSolverService.SolutionCandidate(List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0)));
+
+        assertThrows(CancellationException.class, () -> service.generateAndSaveAll(SolverMode.PARALLEL, progress));
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void validateAndPersistence_recordMetrics() {
+        PuzzleSolverService.SolutionCandidate present = new PuzzleSolverService.SolutionCandidate(
+                List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0);
+        PuzzleSolverService.SolutionCandidate missing = new PuzzleSolverService.SolutionCandidate(
+                List.of(9,8,7,6,5,4,3,2,1), "eq", 66.0);
+        when(solverService.solve(SolverMode.SEQUENTIAL)).thenReturn(List.of(present, missing));
+        when(repository.findAllByPackedSolutionIn(anyList())).thenReturn(List.of(sampleSolution));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.generateAndSaveAll(SolverMode.SEQUENTIAL);
+        service.validate(List.of(1,2,3,4,5,6,7,8,9));
+
+        verify(metrics).recordPersistence(eq(1), eq(1), anyLong());
+        verify(metrics).recordValidation(anyLong());
+    }
+
+    @Test
+    void generateAndSaveAll_onlyInsertsMissingPermutations() {
+        PuzzleSolverService.SolutionCandidate present = new PuzzleSolverService.SolutionCandidate(
+                List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0);
+        PuzzleSolverService.SolutionCandidate missing = new PuzzleSolverService.SolutionCandidate(
+                List.of(9,8,7,6,5,4,3,2,1), "eq", 66.0);
+
+        when(solverService.solve(SolverMode.SEQUENTIAL)).thenReturn(List.of(present, missing));
+        when(repository.findAllByPackedSolutionIn(anyList())).thenReturn(List.of(sampleSolution));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SolutionService.GenerationResult result = service.generateAndSaveAll(SolverMode.SEQUENTIAL);
+
+        assertEquals(2, result.getCount());
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getAlreadyPresent());
+        assertSame(sampleSolution, result.getSolutions().getFirst());
+        verify(repository).saveAll(argThat(entities -> ((List<?>) entities).size() == 1));
+    }
+
+    @Test
+    void generateAndSaveAll_whenEverythingPresent_insertsNothing() {
+        PuzzleSolverService.SolutionCandidate present = new PuzzleSolverService.SolutionCandidate(
+                List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0);
+
+        when(solverService.solve(SolverMode.SEQUENTIAL)).thenReturn(List.of(present));
+        when(repository.findAllByPackedSolutionIn(anyList())).thenReturn(List.of(sampleSolution));
+
+        SolutionService.GenerationResult result = service.generateAndSaveAll(SolverMode.SEQUENTIAL);
+
+        assertEquals(0, result.getInserted());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void generateAndSaveInChunks_savesEachChunk() {
+        PuzzleSolverService.SolutionCandidate candidate = new PuzzleSolverService.SolutionCandidate(
+                List.of(1,2,3,4,5,6,7,8,9), "eq", 66.0);
+
+        when(solverService.stream()).thenReturn(Stream.of(candidate, candidate, candidate));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        SolutionService.GenerationResult result = service.generateAndSaveInChunks(2, saved -> chunkSizes.add(saved.size()));
+
+        assertEquals(3, result.getCount());
+        assertEquals(List.of(2, 1), chunkSizes);
+    }
+
     @Test
     void updateSolution_setsStatusFromValidation() {
         when(repository.findById(1L)).thenReturn(Optional.of(sampleSolution));
@@ -83,19 +245,130 @@ class SolutionServiceTest {
         verify(repository).save(any(PuzzleSolution.class));
     }
 
+    @Test
+    void getSolution_isCachedUntilAWriteInvalidatesIt() {
+        when(repository.findById(1L)).thenReturn(Optional.of(sampleSolution));
+        when(repository.deleteSingleById(2L)).thenReturn(1);
+        long before = service.getDataVersion();
+
+        service.getSolution(1L);
+        service.getSolution(1L);
+        verify(repository, times(1)).findById(1L);
+
+        service.deleteById(2L);
+        assertNotEquals(before, service.getDataVersion());
+
+        service.getSolution(1L);
+        verify(repository, times(2)).findById(1L);
+    }
+
+    @Test
+    void getSolutions_isCachedPerFilter() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(sampleSolution));
+
+        service.getSolutions(null);
+        service.getSolutions(" ");
+
+        verify(repository, times(1)).findAll(any(Sort.class));
+    }
+
     @Test
     void deleteById_throwsWhenMissing() {
-        when(repository.existsById(99L)).thenReturn(false);
+        when(repository.deleteSingleById(99L)).thenReturn(0);
 
         assertThrows(ResponseStatusException.class, () -> service.deleteById(99L));
     }
 
     @Test
     void deleteById_deletesWhenExists() {
-        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.deleteSingleById(1L)).thenReturn(1);
 
         service.deleteById(1L);
 
-        verify(repository).deleteById(1L);
+        verify(repository).deleteSingleById(1L);
+        verify(repository, never()).existsById(any());
+    }
+
+    @Test
+    void deleteAll_usesSingleBulkStatement() {
+        when(repository.deleteMatching(null, null)).thenReturn(136);
+
+        assertEquals(136, service.deleteAll());
+        verify(repository, never()).deleteAll();
+    }
+
+    @Test
+    void deleteMatching_passesStatusAndFilter() {
+        when(repository.deleteMatching(SolutionStatus.INCORRECT, null)).thenReturn(3);
+
+        assertEquals(3, service.deleteMatching(SolutionStatus.INCORRECT, " "));
+    }
+
+    @Test
+    void deleteMatching_escapesLikeWildcards() {
+        when(repository.deleteMatching(null, "\\_1\\%")).thenReturn(0);
+
+        assertEquals(0, service.deleteMatching(null, "_1%"));
+    }
+
+    @Test
+    void complete_pagesThroughMatchingSolutions() {
+        PuzzleSolverService solver = new PuzzleSolverService();
+        when(solverService.solutionSet()).thenReturn(solver.solutionSet());
+        List<Integer> partial = Arrays.asList(null, null, null, null, 5, null, null, null, null);
+        List<List<Integer>> expected = solver.stream()
+                .map(PuzzleSolverService.SolutionCandidate::positions)
+                .filter(positions -> positions.get(4) == 5)
+                .toList();
+
+        SolutionService.CompletionPage first = service.complete(partial, 0, 3);
+        SolutionService.CompletionPage second = service.complete(partial, 3, 3);
+
+        assertEquals(44, first.getCount());
+        assertEquals(expected.subList(0, 3), first.getCompletions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        assertEquals(expected.subList(3, 6), second.getCompletions().stream().map(PuzzleSolverService.SolutionCandidate::positions).toList());
+        assertTrue(service.complete(partial, expected.size(), 3).getCompletions().isEmpty());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.complete(List.of(1, 2, 3), 0, 3));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void generateAndSaveDistributed_adoptsMergedSetAndPersistsIt() {
+        SolutionSet merged = new PuzzleSolverService().solutionSet();
+        GenerationProgress progress = new GenerationProgress();
+        when(solverService.definition()).thenReturn(PuzzleDefinition.DEFAULT);
+        when(distributedSolver.solve(PuzzleDefinition.DEFAULT, 4, progress))
+                .thenReturn(new DistributedSolver.DistributedOutcome(merged, 4, 23, 0, 2, 10));
+        when(solverService.adopt(merged)).thenReturn(merged);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SolutionService.GenerationResult result = service.generateAndSaveDistributed(4, progress);
+
+        assertEquals(136, result.getCount());
+        assertEquals(136, result.getInserted());
+        assertEquals(136, progress.rowsPersisted());
+        assertTrue(result.getSolutions().isEmpty());
+        verify(repository, times(3)).saveAll(anyList());
+        verify(solverService).adopt(merged);
+    }
+
+    @Test
+    void loadIndex_buildsInProcessOrAdoptsACompleteCheckpoint() {
+        when(solverService.searchesInProcess()).thenReturn(true);
+        SolutionSet solutions = new PuzzleSolverService().solutionSet();
+        when(solverService.solutionSet()).thenReturn(solutions);
+        service.loadIndex();
+        verify(solverService).solutionSet();
+        verifyNoInteractions(distributedSolver);
+
+        when(solverService.searchesInProcess()).thenReturn(false);
+        when(solverService.definition()).thenReturn(PuzzleDefinition.DEFAULT);
+        when(distributedSolver.loadCheckpoint(PuzzleDefinition.DEFAULT)).thenReturn(Optional.of(solutions));
+        when(solverService.adopt(solutions)).thenReturn(solutions);
+        service.loadIndex();
+        verify(solverService).adopt(solutions);
+        verify(solverService, times(1)).solutionSet();
     }
 }
@@ -0,0 +1,71 @@
+package com.vietnamese.puzzle.service;
+
+import com.vietnamese.puzzle.model.PuzzleDefinition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionSetCacheTest {
+
+    private static final PuzzleDefinition SHIFTED = new PuzzleDefinition(
+            PuzzleDefinition.DEFAULT.expression(), PuzzleDefinition.DEFAULT.digits(), 9, 67);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PuzzleSolverService solverService = new PuzzleSolverService(PuzzleDefinition.DEFAULT, new PuzzleMetrics(registry));
+    private final SolutionSetCache cache = new SolutionSetCache(solverService, 1 << 20, 1_000_000, 2);
+
+    @AfterEach
+    void shutdown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void get_servesConfiguredDefinitionFromSolver() {
+        assertSame(solverService.solutionSet(), cache.get(PuzzleDefinition.DEFAULT));
+        assertSame(solverService.solutionSet(), cache.get(new PuzzleDefinition(
+                "a+13*b/c+d+12*e-f-11+g*h/i-10", List.of(9, 8, 7, 6, 5, 4, 3, 2, 1), 9, 66)));
+
+        assertEquals(0, cache.stats().requestCount());
+        assertEquals(1, registry.get("puzzle.solver.solve.time").tag("mode", "branch-and-bound").timer().count());
+    }
+
+    @Test
+    void get_solvesEachDefinitionOnceUnderConcurrency() throws Exception {
+        List<Future<SolutionSet>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int caller = 0; caller < 16; caller++) {
+                results.add(executor.submit(() -> cache.get(SHIFTED)));
+            }
+        }
+
+        SolutionSet first = results.getFirst().get();
+        for (Future<SolutionSet> result : results) {
+            assertSame(first, result.get());
+        }
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(15, cache.stats().hitCount());
+        // solved on the cache's own pool, without touching the configured puzzle's meters
+        assertEquals(0, registry.get("puzzle.solver.solve.time").tag("mode", "branch-and-bound").timer().count());
+        assertEquals(67, first.definition().target());
+        assertEquals(1, cache.estimatedSize());
+    }
+
+    @Test
+    void get_rejectsOversizedAndMalformedDefinitions() {
+        assertThrows(ResponseStatusException.class, () -> cache.get(new PuzzleDefinition(
+                "a + b", List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), 10, 1)));
+        PuzzleDefinition malformed = new PuzzleDefinition("a + z", List.of(1, 2), 2, 3);
+        assertThrows(IllegalArgumentException.class, () -> cache.get(malformed));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(malformed));
+        assertEquals(0, cache.stats().requestCount());
+    }
+}